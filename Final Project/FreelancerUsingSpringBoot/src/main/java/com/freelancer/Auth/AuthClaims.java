@@ -0,0 +1,8 @@
+package com.freelancer.Auth;
+
+// Who is signed in, as carried by a verified token or the servlet session; expiresAt is 0 for sessions
+public record AuthClaims(Long id, String email, String name, long expiresAt) {
+
+    // Request attribute TokenAuthFilter stores the verified claims under
+    public static final String ATTRIBUTE = AuthClaims.class.getName();
+}
@@ -0,0 +1,92 @@
+package com.freelancer.Auth;
+
+import com.freelancer.Entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Keeps track of the signed-in user between requests. In the default session
+ * mode that is the servlet HttpSession, as before. In token mode it is a
+ * signed cookie that TokenAuthFilter checks on each request, so no instance
+ * holds login state: restarts keep users signed in and any node behind a
+ * plain load balancer can answer.
+ */
+@Service
+public class AuthService {
+
+    // session or token
+    @Value("${freelancer.auth.mode:session}")
+    private String mode;
+
+    @Autowired
+    private TokenService tokenService;
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+
+    private boolean tokenMode;
+
+    @PostConstruct
+    public void init() {
+        tokenMode = "token".equalsIgnoreCase(mode);
+        if (tokenMode && !tokenService.canSign()) {
+            throw new IllegalStateException("freelancer.auth.mode=token needs freelancer.auth.keys to contain freelancer.auth.active-key");
+        }
+        logger.info("Auth mode: {}", tokenMode ? "signed tokens" : "http session");
+    }
+
+    public boolean isTokenMode() {
+        return tokenMode;
+    }
+
+    // Session to record a login in, fetched on the request thread before any async work; null in token mode
+    public HttpSession sessionFor(HttpServletRequest request) {
+        return tokenMode ? null : request.getSession();
+    }
+
+    // Records the login; in token mode the returned headers carry the signed cookie
+    public HttpHeaders signIn(User user, HttpSession session) {
+        HttpHeaders headers = new HttpHeaders();
+        if (tokenMode) {
+            headers.add(HttpHeaders.SET_COOKIE, tokenService.cookie(tokenService.issue(user.getId(), user.getEmail(), user.getName())).toString());
+        } else {
+            session.setAttribute("email", user.getEmail());
+            session.setAttribute("name", user.getName());
+            session.setAttribute("id", user.getId());
+        }
+        return headers;
+    }
+
+    // The signed-in user, or null; never touches the database
+    public AuthClaims current(HttpServletRequest request) {
+        if (tokenMode) {
+            return (AuthClaims) request.getAttribute(AuthClaims.ATTRIBUTE);
+        }
+        HttpSession session = request.getSession(false);
+        if (session == null || session.getAttribute("email") == null) {
+            return null;
+        }
+        return new AuthClaims(Long.parseLong(session.getAttribute("id") + ""), session.getAttribute("email") + "",
+                session.getAttribute("name") + "", 0);
+    }
+
+    public HttpHeaders signOut(HttpServletRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        if (tokenMode) {
+            headers.add(HttpHeaders.SET_COOKIE, tokenService.expiredCookie().toString());
+        } else {
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                session.invalidate();
+            }
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,48 @@
+package com.freelancer.Auth;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * In token mode, checks the auth cookie on every request and exposes the
+ * claims as a request attribute for AuthService. Missing or invalid tokens
+ * just leave the request anonymous. Does nothing in session mode.
+ */
+@Component
+public class TokenAuthFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private TokenService tokenService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !authService.isTokenMode();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = tokenService.readToken(request);
+        if (token != null) {
+            AuthClaims claims = tokenService.verify(token);
+            if (claims != null) {
+                request.setAttribute(AuthClaims.ATTRIBUTE, claims);
+                if (tokenService.needsRefresh(claims)) {
+                    response.addHeader(HttpHeaders.SET_COOKIE,
+                            tokenService.cookie(tokenService.issue(claims.id(), claims.email(), claims.name())).toString());
+                }
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,160 @@
+package com.freelancer.Auth;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Issues and checks the signed tokens used in stateless auth mode. A token is
+ * kid.payload.signature in base64url, where the payload is a small JSON object
+ * with the user's id, email, name and expiry, and the signature is HMAC-SHA256
+ * over kid.payload. Checking one is a local hash; nothing is looked up.
+ * <p>
+ * Keys rotate through freelancer.auth.keys: new tokens are signed with
+ * freelancer.auth.active-key, and tokens signed with any other listed key stay
+ * valid until they expire or that key is removed from the list.
+ */
+@Service
+public class TokenService {
+
+    // Comma separated kid:base64-secret pairs, secrets of at least 32 bytes
+    @Value("${freelancer.auth.keys:}")
+    private String keys;
+    @Value("${freelancer.auth.active-key:}")
+    private String activeKeyId;
+    @Value("${freelancer.auth.token-ttl-ms:43200000}")
+    private long ttlMs;
+    @Value("${freelancer.auth.cookie-name:FREELANCER_AUTH}")
+    private String cookieName;
+    @Value("${freelancer.auth.cookie-secure:false}")
+    private boolean cookieSecure;
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenService.class);
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Initialised prototypes per key id; Mac is not thread safe, so each use works on a clone
+    private final Map<String, Mac> macs = new HashMap<>();
+
+    @PostConstruct
+    public void init() throws GeneralSecurityException {
+        for (String entry : keys.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalStateException("freelancer.auth.keys entries must look like kid:base64-secret");
+            }
+            String kid = entry.substring(0, colon);
+            byte[] secret = Base64.getDecoder().decode(entry.substring(colon + 1));
+            if (secret.length < 32) {
+                throw new IllegalStateException("Auth key " + kid + " is shorter than 32 bytes");
+            }
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            macs.put(kid, mac);
+        }
+        if (!macs.isEmpty()) {
+            logger.info("Token keys loaded: {}, signing with {}", macs.keySet(), activeKeyId);
+        }
+    }
+
+    public boolean canSign() {
+        return macs.containsKey(activeKeyId);
+    }
+
+    public String issue(Long id, String email, String name) {
+        String payload = new JSONObject()
+                .put("sub", id)
+                .put("email", email)
+                .put("name", name)
+                .put("exp", System.currentTimeMillis() + ttlMs)
+                .toString();
+        String signed = activeKeyId + "." + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return signed + "." + ENCODER.encodeToString(sign(activeKeyId, signed));
+    }
+
+    // Claims of a well-formed, correctly signed and unexpired token; null for anything else
+    public AuthClaims verify(String token) {
+        int first = token.indexOf('.');
+        int last = token.lastIndexOf('.');
+        if (first <= 0 || last == first) {
+            return null;
+        }
+        String kid = token.substring(0, first);
+        if (!macs.containsKey(kid)) {
+            return null;
+        }
+        try {
+            byte[] expected = sign(kid, token.substring(0, last));
+            if (!MessageDigest.isEqual(expected, DECODER.decode(token.substring(last + 1)))) {
+                return null;
+            }
+            JSONObject payload = new JSONObject(new String(DECODER.decode(token.substring(first + 1, last)), StandardCharsets.UTF_8));
+            long expiresAt = payload.getLong("exp");
+            if (expiresAt <= System.currentTimeMillis()) {
+                return null;
+            }
+            return new AuthClaims(payload.getLong("sub"), payload.getString("email"), payload.getString("name"), expiresAt);
+        } catch (IllegalArgumentException | JSONException e) {
+            return null;
+        }
+    }
+
+    // Past half its lifetime, so the filter hands out a fresh one and active users are never cut off
+    public boolean needsRefresh(AuthClaims claims) {
+        return claims.expiresAt() - System.currentTimeMillis() < ttlMs / 2;
+    }
+
+    public String readToken(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookieName.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    public ResponseCookie cookie(String token) {
+        return cookieBuilder(token).maxAge(Duration.ofMillis(ttlMs)).build();
+    }
+
+    public ResponseCookie expiredCookie() {
+        return cookieBuilder("").maxAge(0).build();
+    }
+
+    private ResponseCookie.ResponseCookieBuilder cookieBuilder(String value) {
+        return ResponseCookie.from(cookieName, value).httpOnly(true).secure(cookieSecure).sameSite("Lax").path("/");
+    }
+
+    private byte[] sign(String kid, String signed) {
+        try {
+            Mac mac = (Mac) macs.get(kid).clone();
+            return mac.doFinal(signed.getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HmacSHA256 provider cannot clone", e);
+        }
+    }
+}
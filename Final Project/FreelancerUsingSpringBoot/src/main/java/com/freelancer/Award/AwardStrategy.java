@@ -0,0 +1,16 @@
+package com.freelancer.Award;
+
+/**
+ * Decides who wins a project when its bids close. Implementations are Spring
+ * beans looked up by {@link #name()}, which is the value a project stores in
+ * award_strategy. {@link #pickWinner} sees every bid of the project as
+ * parallel primitive arrays and should score them in a single pass without
+ * allocating, since popular projects carry thousands of bids.
+ */
+public interface AwardStrategy {
+
+    String name();
+
+    // Index of the winning bid in bids, or -1 when nobody should be awarded
+    int pickWinner(ProjectBids bids, AwardTerms terms);
+}
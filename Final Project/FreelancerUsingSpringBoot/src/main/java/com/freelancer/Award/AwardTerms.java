@@ -0,0 +1,20 @@
+package com.freelancer.Award;
+
+// What the employer asked for: budget ceiling and period from the posting (0 when unknown) and an optional reserve price
+public record AwardTerms(long budgetMinor, int periodDays, Long reserveMinor) {
+
+    // Periods are free text such as "5" or "5 days"; keep the digits
+    public static int parseDays(String period) {
+        if (period == null) {
+            return 0;
+        }
+        int days = 0;
+        for (int i = 0; i < period.length(); i++) {
+            char c = period.charAt(i);
+            if (c >= '0' && c <= '9') {
+                days = Math.min(days * 10 + (c - '0'), 100_000);
+            }
+        }
+        return days;
+    }
+}
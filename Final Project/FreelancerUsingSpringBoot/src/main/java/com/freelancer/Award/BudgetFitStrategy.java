@@ -0,0 +1,43 @@
+package com.freelancer.Award;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Scores each bid against the employer's own budget and period: the share of
+ * the budget ceiling it uses plus the share of the requested period it needs,
+ * lowest total wins. Bids above the budget ceiling are not eligible. Falls
+ * back to lowest price when the posting has no parseable budget.
+ */
+@Component
+public class BudgetFitStrategy implements AwardStrategy {
+
+    @Override
+    public String name() {
+        return "BUDGET_FIT";
+    }
+
+    @Override
+    public int pickWinner(ProjectBids bids, AwardTerms terms) {
+        if (terms.budgetMinor() <= 0) {
+            return LowestPriceStrategy.lowest(bids);
+        }
+        long[] amounts = bids.amountMinor();
+        int[] periods = bids.periodDays();
+        // Multiply by reciprocals so the loop does no division
+        double perBudget = 1.0 / terms.budgetMinor();
+        double perDay = 1.0 / Math.max(terms.periodDays(), 1);
+        int best = -1;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < bids.size(); i++) {
+            if (amounts[i] > terms.budgetMinor()) {
+                continue;
+            }
+            double score = amounts[i] * perBudget + periods[i] * perDay;
+            if (score < bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
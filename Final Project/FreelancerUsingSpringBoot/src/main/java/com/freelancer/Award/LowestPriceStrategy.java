@@ -0,0 +1,33 @@
+package com.freelancer.Award;
+
+import org.springframework.stereotype.Component;
+
+// Cheapest bid wins; ties go to the earliest bid
+@Component
+public class LowestPriceStrategy implements AwardStrategy {
+
+    public static final String NAME = "LOWEST_PRICE";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int pickWinner(ProjectBids bids, AwardTerms terms) {
+        return lowest(bids);
+    }
+
+    static int lowest(ProjectBids bids) {
+        long[] amounts = bids.amountMinor();
+        int best = -1;
+        long bestAmount = Long.MAX_VALUE;
+        for (int i = 0; i < bids.size(); i++) {
+            if (amounts[i] < bestAmount) {
+                bestAmount = amounts[i];
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,29 @@
+package com.freelancer.Award;
+
+import org.springframework.stereotype.Component;
+
+// Lowest price x delivery days wins, so a slightly dearer bid that delivers much sooner can beat the cheapest one
+@Component
+public class PricePeriodStrategy implements AwardStrategy {
+
+    @Override
+    public String name() {
+        return "PRICE_PERIOD";
+    }
+
+    @Override
+    public int pickWinner(ProjectBids bids, AwardTerms terms) {
+        long[] amounts = bids.amountMinor();
+        int[] periods = bids.periodDays();
+        int best = -1;
+        long bestCost = Long.MAX_VALUE;
+        for (int i = 0; i < bids.size(); i++) {
+            long cost = amounts[i] * Math.max(periods[i], 1);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,5 @@
+package com.freelancer.Award;
+
+// Column-wise view of a project's bids, in bid id order; only the first size entries of each array are valid
+public record ProjectBids(long[] bidIds, long[] userIds, long[] amountMinor, int[] periodDays, int size) {
+}
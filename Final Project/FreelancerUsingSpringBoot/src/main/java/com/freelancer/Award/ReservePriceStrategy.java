@@ -0,0 +1,22 @@
+package com.freelancer.Award;
+
+import org.springframework.stereotype.Component;
+
+// Lowest bid wins only if it is at or under the project's reserve price; otherwise nobody is awarded
+@Component
+public class ReservePriceStrategy implements AwardStrategy {
+
+    @Override
+    public String name() {
+        return "RESERVE_PRICE";
+    }
+
+    @Override
+    public int pickWinner(ProjectBids bids, AwardTerms terms) {
+        int best = LowestPriceStrategy.lowest(bids);
+        if (best >= 0 && terms.reserveMinor() != null && bids.amountMinor()[best] > terms.reserveMinor()) {
+            return -1;
+        }
+        return best;
+    }
+}
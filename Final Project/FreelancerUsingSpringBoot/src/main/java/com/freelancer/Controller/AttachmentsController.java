@@ -1,26 +1,38 @@
 package com.freelancer.Controller;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.util.Date;
-
 import com.freelancer.Entity.Attachments;
 import com.freelancer.Entity.Project;
 import com.freelancer.Entity.User;
+import com.freelancer.POJO.StoredFile;
+import com.freelancer.POJO.UploadStatus;
+import com.freelancer.Scheduler.DeadlineTimer;
+import com.freelancer.Service.AttachmentDownloadService;
 import com.freelancer.Service.AttachmentsService;
+import com.freelancer.Service.FileStorageService;
+import com.freelancer.Service.ImageDerivativeService;
 import com.freelancer.Service.ProjectService;
+import com.freelancer.Service.UploadSessionService;
 import com.freelancer.Service.UserService;
 import com.freelancer.Utility.ResultObject;
+import com.freelancer.exception.ChunkChecksumException;
+import com.freelancer.exception.ResourceNotFoundException;
+import com.freelancer.exception.UploadChecksumException;
+import com.freelancer.exception.UploadTooLargeException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
 @Controller
 public class AttachmentsController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
@@ -31,6 +43,16 @@ public class AttachmentsController {
     private AttachmentsService attachmentsService;
     @Autowired
     private ProjectService projectService;
+    @Autowired
+    private DeadlineTimer deadlineTimer;
+    @Autowired
+    private FileStorageService fileStorageService;
+    @Autowired
+    private UploadSessionService uploadSessionService;
+    @Autowired
+    private AttachmentDownloadService attachmentDownloadService;
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
 
 
     @RequestMapping(value="/imageUpload")
@@ -58,6 +80,19 @@ public class AttachmentsController {
 
     }
 
+    // The stored bytes of an attachment, with Range and ETag support; cacheable for good once it has a hash.
+    // For images, ?size=64 returns a square thumbnail at the nearest configured size.
+    @GetMapping(path = "/attachments/{id}")
+    public void download(@PathVariable("id") long attachmentId, @RequestParam(value = "size", required = false) Integer size,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Attachments attachments = attachmentsService.findById(attachmentId);
+        if (attachments == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        attachmentDownloadService.send(attachments, size, request, response);
+    }
+
     @RequestMapping(value="/imageUpload", method=RequestMethod.POST )
     public ResponseEntity<?> singleSave(@RequestParam("file") MultipartFile file, @RequestParam("id") int id ){
         System.out.println("File Description:"+id);
@@ -65,21 +100,43 @@ public class AttachmentsController {
         ResultObject ro = new ResultObject("Error Uploading Image","",null);
         if (!file.isEmpty()) {
             try {
-                fileName = new Date().getTime()+file.getOriginalFilename();
-                byte[] bytes = file.getBytes();
-                BufferedOutputStream buffStream =
-                        new BufferedOutputStream(new FileOutputStream(new File("../react-client/src/images/" + fileName)));
-                buffStream.write(bytes);
-                buffStream.close();
+                // Checked before anything is stored, so an unknown user leaves no attachment or blob reference behind
+                User user = userService.findById(id);
+                if (user == null) {
+                    ro.setErrorMsg("User not found");
+                    return new ResponseEntity(ro, HttpStatus.BAD_REQUEST);
+                }
+                StoredFile stored = fileStorageService.storeImage(file);
+                fileName = stored.fileName();
                 logger.info("Image saved Successfully " + fileName) ;
 
-                Attachments attachments = attachmentsService.save(new Attachments(fileName));
-                User user = userService.findById(id);
+                Attachments attachments = attachmentsService.create(stored);
+                Long previous = user.getProfile_id();
                 user.setProfile_id(attachments.getId());
-                userService.updateUser(user);
+                User updated;
+                try {
+                    updated = userService.updateUser(user);
+                } catch (RuntimeException e) {
+                    attachmentsService.delete(attachments.getId());
+                    throw e;
+                }
+                if (updated == null) {
+                    // Nothing points at the new attachment; give its row and blob reference back
+                    attachmentsService.delete(attachments.getId());
+                    ro.setErrorMsg("Failed to upload " + fileName + ": user could not be updated");
+                    return new ResponseEntity(ro, HttpStatus.BAD_REQUEST);
+                }
+                if (previous != null && !previous.equals(attachments.getId())) {
+                    attachmentsService.delete(previous);
+                }
+                // Avatar sizes are made in the background, so list views have them by the time they ask
+                imageDerivativeService.generate(stored.sha256());
                 ro.setSuccessMsg("Image uploaded Successfully");
                 ro.setErrorMsg("");
                 return new ResponseEntity(ro, HttpStatus.OK);
+            } catch (UploadTooLargeException e) {
+                ro.setErrorMsg("Failed to upload: " + e.getMessage());
+                return new ResponseEntity(ro, HttpStatus.PAYLOAD_TOO_LARGE);
             } catch (Exception e) {
                 ro.setErrorMsg("Failed to upload " + fileName + ": " + e.getMessage());
                 return new ResponseEntity(ro, HttpStatus.BAD_REQUEST);
@@ -100,34 +157,13 @@ public class AttachmentsController {
 
         if (!file.isEmpty()) {
             try {
-                fileName = new Date().getTime()+file.getOriginalFilename();
-                byte[] bytes = file.getBytes();
-                BufferedOutputStream buffStream =
-                        new BufferedOutputStream(new FileOutputStream(new File("../react-client/src/files/" + fileName)));
-                buffStream.write(bytes);
-                buffStream.close();
+                StoredFile stored = fileStorageService.storeDocument(file);
+                fileName = stored.fileName();
                 logger.info("File Copied Successfully" + fileName) ;
-                Attachments attachments = attachmentsService.save(new Attachments(fileName));
-                if(attachments.getId()!=null){
-                    logger.info("File Saved Successfully" + fileName) ;
-
-                    Project project = projectService.save(new Project(id,title,description,skill,budget,period,attachments.getId()));
-                    if(project.getId()!=null){
-                        ro.setSuccessMsg("Project Posted Successfully");
-                        ro.setErrorMsg("");
-                        return new ResponseEntity(ro, HttpStatus.OK);
-                    }
-                    else{
-                        ro.setSuccessMsg("");
-                        ro.setErrorMsg("Error Posting Project");
-                        return new ResponseEntity(ro, HttpStatus.OK);
-                    }
-
-                }else{
-                    ro.setSuccessMsg("");
-                    ro.setErrorMsg("Error Saving File");
-                    return new ResponseEntity(ro, HttpStatus.OK);
-                }
+                return saveProject(ro, stored, id, title, description, skill, budget, period);
+            } catch (UploadTooLargeException e) {
+                ro.setErrorMsg("Failed to upload: " + e.getMessage());
+                return new ResponseEntity(ro, HttpStatus.PAYLOAD_TOO_LARGE);
             } catch (Exception e) {
                 ro.setErrorMsg("Failed to upload " + fileName + ": " + e.getMessage());
                 return new ResponseEntity(ro, HttpStatus.BAD_REQUEST);
@@ -138,6 +174,129 @@ public class AttachmentsController {
         }
     }
 
+    private ResponseEntity<?> saveProject(ResultObject ro, StoredFile stored, Long id, String title, String description,
+                                          String skill, String budget, String period) throws IOException {
+        String fileName = stored.fileName();
+        Attachments attachments = attachmentsService.create(stored);
+        if(attachments.getId()!=null){
+            logger.info("File Saved Successfully" + fileName) ;
+
+            Project project = new Project(id,title,description,skill,budget,period,attachments.getId());
+            project.setBidDeadline(LocalDateTime.now().plusDays(7)); // bids close after 7 days
+            project = projectService.save(project);
+            if(project.getId()!=null){
+                deadlineTimer.schedule(project);
+                ro.setSuccessMsg("Project Posted Successfully");
+                ro.setErrorMsg("");
+                return new ResponseEntity(ro, HttpStatus.OK);
+            }
+            else{
+                ro.setSuccessMsg("");
+                ro.setErrorMsg("Error Posting Project");
+                return new ResponseEntity(ro, HttpStatus.OK);
+            }
+
+        }else{
+            ro.setSuccessMsg("");
+            ro.setErrorMsg("Error Saving File");
+            return new ResponseEntity(ro, HttpStatus.OK);
+        }
+    }
+
+    // Chunked alternative to /postProject for large documents: start a session with {fileName, size}, PUT the
+    // chunks, then complete it with the project fields and optionally the sha256 of the whole file. After a dropped
+    // connection, GET the session and resume from its offset.
+    @PostMapping(path = "/uploadSession", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> startUpload(@RequestBody String upload) {
+        ResultObject ro = new ResultObject("Error Starting Upload","",null);
+        try {
+            JSONObject jsonObject = new JSONObject(upload);
+            UploadStatus status = uploadSessionService.start(jsonObject.getString("fileName"), jsonObject.getLong("size"));
+            return uploaded(ro, status);
+        } catch (Exception e) {
+            return uploadFailed(ro, e);
+        }
+    }
+
+    @GetMapping(path = "/uploadSession/{id}")
+    public ResponseEntity<?> uploadStatus(@PathVariable("id") String uploadId) {
+        ResultObject ro = new ResultObject("Error Fetching Upload","",null);
+        try {
+            return uploaded(ro, uploadSessionService.status(uploadId));
+        } catch (Exception e) {
+            return uploadFailed(ro, e);
+        }
+    }
+
+    // Body is the raw chunk; X-Chunk-SHA256 is the hex SHA-256 of exactly those bytes
+    @PutMapping(path = "/uploadSession/{id}")
+    public ResponseEntity<?> uploadChunk(@PathVariable("id") String uploadId, @RequestParam long offset,
+                                         @RequestHeader("X-Chunk-SHA256") String checksum, HttpServletRequest request) {
+        ResultObject ro = new ResultObject("Error Uploading Chunk","",null);
+        long length = request.getContentLengthLong();
+        if (length < 0) {
+            ro.setErrorMsg("Content-Length is required");
+            return new ResponseEntity(ro, HttpStatus.LENGTH_REQUIRED);
+        }
+        try {
+            return uploaded(ro, uploadSessionService.writeChunk(uploadId, offset, length, checksum, request.getInputStream()));
+        } catch (Exception e) {
+            return uploadFailed(ro, e);
+        }
+    }
+
+    @PostMapping(path = "/uploadSession/{id}/complete", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> completeUpload(@PathVariable("id") String uploadId, @RequestBody String project) {
+        ResultObject ro = new ResultObject("Error Posting Project","",null);
+        try {
+            JSONObject jsonObject = new JSONObject(project);
+            StoredFile stored = uploadSessionService.complete(uploadId, jsonObject.optString("sha256", null));
+            logger.info("File Copied Successfully" + stored.fileName()) ;
+            return saveProject(ro, stored, jsonObject.getLong("id"), jsonObject.getString("title"),
+                    jsonObject.getString("description"), jsonObject.getString("skill"),
+                    jsonObject.getString("budget"), jsonObject.getString("period"));
+        } catch (Exception e) {
+            return uploadFailed(ro, e);
+        }
+    }
+
+    @DeleteMapping(path = "/uploadSession/{id}")
+    public ResponseEntity<?> cancelUpload(@PathVariable("id") String uploadId) {
+        ResultObject ro = new ResultObject("Error Cancelling Upload","",null);
+        try {
+            uploadSessionService.cancel(uploadId);
+            ro.setSuccessMsg("Upload Cancelled");
+            ro.setErrorMsg("");
+            return new ResponseEntity(ro, HttpStatus.OK);
+        } catch (Exception e) {
+            return uploadFailed(ro, e);
+        }
+    }
+
+    private ResponseEntity<?> uploaded(ResultObject ro, UploadStatus status) {
+        ro.setSuccessMsg(status.offset() == status.size() ? "Upload Ready To Complete" : "Upload In Progress");
+        ro.setErrorMsg("");
+        ro.setData(status);
+        return new ResponseEntity(ro, HttpStatus.OK);
+    }
+
+    private ResponseEntity<?> uploadFailed(ResultObject ro, Exception e) {
+        ro.setErrorMsg(e.getMessage());
+        if (e instanceof ResourceNotFoundException) {
+            return new ResponseEntity(ro, HttpStatus.NOT_FOUND);
+        } else if (e instanceof UploadTooLargeException) {
+            return new ResponseEntity(ro, HttpStatus.PAYLOAD_TOO_LARGE);
+        } else if (e instanceof ChunkChecksumException || e instanceof UploadChecksumException) {
+            return new ResponseEntity(ro, HttpStatus.UNPROCESSABLE_ENTITY);
+        } else if (e instanceof IllegalStateException) {
+            return new ResponseEntity(ro, HttpStatus.CONFLICT);
+        } else if (e instanceof RejectedExecutionException) {
+            return new ResponseEntity(ro, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        logger.error("Chunked upload failed: {}", e.getMessage());
+        return new ResponseEntity(ro, HttpStatus.BAD_REQUEST);
+    }
+
 
 
 
@@ -153,11 +312,7 @@ public class AttachmentsController {
             for(int i =0 ;i< files.length; i++){
                 try {
                     fileName = files[i].getOriginalFilename();
-                    byte[] bytes = files[i].getBytes();
-                    BufferedOutputStream buffStream =
-                            new BufferedOutputStream(new FileOutputStream(new File("F:/cp/" + fileName)));
-                    buffStream.write(bytes);
-                    buffStream.close();
+                    fileName = fileStorageService.storeFile(files[i]).fileName();
                     msg += "You have successfully uploaded " + fileName +"<br/>";
                 } catch (Exception e) {
                     return "You failed to upload " + fileName + ": " + e.getMessage() +"<br/>";
@@ -4,23 +4,42 @@ import com.freelancer.Entity.Bid;
 import com.freelancer.Entity.User;
 import com.freelancer.Entity.Project;
 import com.freelancer.POJO.BidDetail;
+import com.freelancer.POJO.FeedPage;
+import com.freelancer.POJO.FeedQuery;
+import com.freelancer.Service.BidIngestionService;
 import com.freelancer.Service.BidService;
+import com.freelancer.Service.BidStreamService;
+import com.freelancer.Service.ExportService;
+import com.freelancer.Service.HydrationService;
+import com.freelancer.Service.ObjectService;
 import com.freelancer.Service.UserService;
 import com.freelancer.Service.ProjectService;
 import com.freelancer.Utility.ResultObject;
+import com.freelancer.exception.IdempotencyKeyReusedException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import jakarta.servlet.http.HttpSession;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Controller
 public class BidController {
@@ -31,8 +50,20 @@ public class BidController {
     private UserService userService;
     @Autowired
     private ProjectService projectService;
+    @Autowired
+    private ObjectService objectService;
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private HydrationService hydrationService;
+    @Autowired
+    private BidIngestionService bidIngestionService;
+    @Autowired
+    private BidStreamService bidStreamService;
 
     private static final Logger logger = LoggerFactory.getLogger(BidController.class);
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
 
     // ✅ 1. Get all bids
     @GetMapping(path = "/allBids", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -40,10 +71,26 @@ public class BidController {
         return bidService.getAllBids();
     }
 
+    @GetMapping(path = "/allBids", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBids() {
+        return new ResponseEntity<>(exportService.streamJsonArray(bidService::streamAllBids), HttpStatus.OK);
+    }
+
     // ✅ 2. Post or update a bid
     @PostMapping(path = "/postBid", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> postBid(@RequestBody String bidJson, HttpSession session) {
+    public ResponseEntity<?> postBid(@RequestBody String bidJson,
+                                     @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         ResultObject ro = new ResultObject("Error adding bid", "", null);
+        // Keys only mean something on the write-behind path, the one place a bid can outlive its request
+        boolean writeBehind = bidIngestionService.isEnabled();
+        if (!writeBehind) {
+            idempotencyKey = null;
+        } else if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            idempotencyKey = UUID.randomUUID().toString();
+        } else if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            ro.setErrorMsg(IDEMPOTENCY_KEY + " is too long");
+            return new ResponseEntity<>(ro, HttpStatus.BAD_REQUEST);
+        }
         try {
             JSONObject json = new JSONObject(bidJson);
             Bid bid = new Bid();
@@ -52,6 +99,9 @@ public class BidController {
             bid.setUserId(json.getLong("userId"));
             bid.setProjectId(json.getLong("projectId"));
             bid.setBid_amount(json.getString("bid_amount"));
+            if (json.has("currency")) {
+                bid.setCurrency(json.getString("currency"));
+            }
 
             // ✅ Clean period to be only numbers
             String rawPeriod = json.getString("bid_period");
@@ -60,14 +110,36 @@ public class BidController {
 
             bid.setBid_status("BID_SENT");
 
-            Bid saved = bidService.save(bid);
+            // With write-behind on, only acknowledge once the batch holding this bid has committed
+            Bid saved = writeBehind
+                    ? bidIngestionService.submit(bid, idempotencyKey, sha256(bidJson)).get(10, TimeUnit.SECONDS)
+                    : bidService.placeBid(bid);
 
             ro.setErrorMsg("");
             ro.setSuccessMsg("Bid Added");
             ro.setData(saved);
 
-            return new ResponseEntity<>(ro, HttpStatus.OK);
+            return writeBehind ? ResponseEntity.ok().header(IDEMPOTENCY_KEY, idempotencyKey).body(ro)
+                    : new ResponseEntity<>(ro, HttpStatus.OK);
 
+        } catch (TimeoutException e) {
+            // Still queued and may yet commit: a retry with the same key waits on this bid rather than placing another
+            logger.warn("Bid outcome unknown after 10s, key {}", idempotencyKey);
+            ro.setErrorMsg("");
+            ro.setSuccessMsg("Bid accepted, outcome unknown; retry with the same " + IDEMPOTENCY_KEY + " for the result");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).header(IDEMPOTENCY_KEY, idempotencyKey).body(ro);
+        } catch (IdempotencyKeyReusedException e) {
+            logger.warn("Bid refused: {}", e.getMessage());
+            ro.setErrorMsg(e.getMessage());
+            return new ResponseEntity<>(ro, HttpStatus.UNPROCESSABLE_ENTITY);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Bid rejected: {}", e.getMessage());
+            ro.setErrorMsg("Too many bids right now, please retry");
+            return new ResponseEntity<>(ro, HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            logger.error("Error adding bid: {}", e.getCause().getMessage());
+            ro.setErrorMsg(e.getCause().getMessage());
+            return new ResponseEntity<>(ro, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             logger.error("Error adding bid: {}", e.getMessage());
             ro.setErrorMsg(e.getMessage());
@@ -82,36 +154,9 @@ public class BidController {
         ResultObject ro = new ResultObject("Error fetching bid", "", null);
         try {
             List<Bid> bids = bidService.findByProjectId(projectId);
-            List<BidDetail> bidDetails = new ArrayList<>();
 
-            // Compute average bid for this project
-            double avgBid = 0.0;
             if (!bids.isEmpty()) {
-                avgBid = bids.stream()
-                        .mapToDouble(b -> Double.parseDouble(b.getBid_amount().replaceAll("[^0-9.]", "")))
-                        .average()
-                        .orElse(0.0);
-            }
-
-            if (!bids.isEmpty()) {
-                for (Bid bid : bids) {
-                    User bidder = userService.findById(bid.getUserId());
-                    Project project = projectService.findById(bid.getProjectId());
-                    User employer = userService.findById(project.getEmployerId());
-
-                    bidDetails.add(new BidDetail(
-                            bid.getId(),
-                            bid.getUserId(),
-                            bid.getProjectId(),
-                            bid.getBid_period(),
-                            bid.getBid_amount(),
-                            bid.getBid_status(),
-                            bidder != null ? bidder.getName() : "Unknown",
-                            project != null ? project.getTitle() : "Untitled",
-                            employer != null ? employer.getName() : "Unknown Employer",
-                            avgBid
-                    ));
-                }
+                List<BidDetail> bidDetails = hydrationService.toBidDetails(bids);
                 ro.setErrorMsg("");
                 ro.setSuccessMsg("Bids Found");
                 ro.setData(bidDetails);
@@ -127,6 +172,17 @@ public class BidController {
         }
     }
 
+    // Live updates for a project page: load /getProjectBids once, then apply the "bids" events from here
+    @GetMapping(path = "/streamProjectBids/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamProjectBids(@PathVariable("id") long projectId) {
+        try {
+            return ResponseEntity.ok(bidStreamService.subscribe(projectId));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Bid stream refused for project {}: {}", projectId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+    }
+
     // ✅ 4. Get all bids placed by a specific user (Dashboard)
     @PostMapping(path = "/getUserBidProjects", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getUserBidProjects(@RequestBody String user) {
@@ -135,39 +191,18 @@ public class BidController {
             JSONObject jsonObject = new JSONObject(user);
             long userId = jsonObject.getLong("id");
 
-            List<Bid> bids = bidService.findByUserId(userId);
-            List<BidDetail> bidDetails = new ArrayList<>();
+            if (FeedQuery.isPaged(jsonObject)) {
+                FeedPage<BidDetail> page = objectService.getUserBidProjectsPage(userId, FeedQuery.from(jsonObject));
+                ro.setErrorMsg("");
+                ro.setSuccessMsg("Bids Found");
+                ro.setData(page.getItems());
+                ro.setNextCursor(page.getNextCursor());
+                return new ResponseEntity<>(ro, HttpStatus.OK);
+            }
 
-            if (!bids.isEmpty()) {
-                for (Bid bid : bids) {
-                    User bidder = userService.findById(bid.getUserId());
-                    Project project = projectService.findById(bid.getProjectId());
-                    User employer = userService.findById(project.getEmployerId());
-
-                    // Compute avg bid for this project
-                    List<Bid> allProjectBids = bidService.findByProjectId(bid.getProjectId());
-                    double avgBid = 0.0;
-                    if (!allProjectBids.isEmpty()) {
-                        avgBid = allProjectBids.stream()
-                                .mapToDouble(b -> Double.parseDouble(b.getBid_amount().replaceAll("[^0-9.]", "")))
-                                .average()
-                                .orElse(0.0);
-                    }
-
-                    bidDetails.add(new BidDetail(
-                            bid.getId(),
-                            bid.getUserId(),
-                            bid.getProjectId(),
-                            bid.getBid_period(),
-                            bid.getBid_amount(),
-                            bid.getBid_status(),
-                            bidder != null ? bidder.getName() : "Unknown",
-                            project != null ? project.getTitle() : "Untitled",
-                            employer != null ? employer.getName() : "Unknown Employer",
-                            avgBid
-                    ));
-                }
+            List<BidDetail> bidDetails = objectService.getUserBidDetails(userId);
 
+            if (!bidDetails.isEmpty()) {
                 ro.setErrorMsg("");
                 ro.setSuccessMsg("Bids Found");
                 ro.setData(bidDetails);
@@ -183,4 +218,12 @@ public class BidController {
         }
     }
 
+    // Fingerprint of a bid request, so a key reused with a different body is caught
+    private static String sha256(String body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -1,13 +1,50 @@
 package com.freelancer.Controller;
 
+import com.freelancer.POJO.JobRun;
+import com.freelancer.Scheduler.BidScheduler;
+import com.freelancer.Service.PasswordHashingService;
+import com.freelancer.Service.UserService;
+import com.freelancer.Utility.ResultObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 public class HomeController {
 
+    @Autowired
+    private BidScheduler bidScheduler;
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    @Autowired
+    private UserService userService;
+
     @GetMapping("/")
     public String home() {
         return "✅ Backend is running fine!";
     }
+
+    // Last run of the deadline closing job: duration, projects closed and how many are still due
+    @GetMapping("/schedulerStatus")
+    public ResponseEntity<?> schedulerStatus() {
+        JobRun lastRun = bidScheduler.getLastRun();
+        if (lastRun == null) {
+            return new ResponseEntity<>(new ResultObject("Closing job has not run yet", "", null), HttpStatus.OK);
+        }
+        return new ResponseEntity<>(new ResultObject("", "Closing job status", lastRun), HttpStatus.OK);
+    }
+
+    // Password hashing pool: queue depth, rejections and hash latency
+    @GetMapping("/passwordHashingStatus")
+    public ResponseEntity<?> passwordHashingStatus() {
+        return new ResponseEntity<>(new ResultObject("", "Password hashing status", passwordHashingService.getStats()), HttpStatus.OK);
+    }
+
+    // User cache: size, hit rate and evictions
+    @GetMapping("/userCacheStatus")
+    public ResponseEntity<?> userCacheStatus() {
+        return new ResponseEntity<>(new ResultObject("", "User cache status", userService.getCacheStats()), HttpStatus.OK);
+    }
 }
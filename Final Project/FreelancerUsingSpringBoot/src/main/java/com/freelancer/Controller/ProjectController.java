@@ -3,16 +3,27 @@ import java.util.List;
 import java.util.ArrayList;
 import java.time.LocalDateTime;
 
+import com.freelancer.POJO.FeedPage;
+import com.freelancer.POJO.FeedQuery;
 import com.freelancer.POJO.ProjectDetail;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
-import com.freelancer.Entity.Bid;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.freelancer.Entity.Attachments;
 import com.freelancer.Entity.Project;
 import com.freelancer.Entity.User;
+import com.freelancer.POJO.StoredFile;
+import com.freelancer.Scheduler.DeadlineTimer;
+import com.freelancer.Service.AttachmentsService;
+import com.freelancer.Service.AwardService;
 import com.freelancer.Service.BidService;
+import com.freelancer.Service.ExportService;
+import com.freelancer.Service.FileStorageService;
 import com.freelancer.Service.ObjectService;
 import com.freelancer.Service.ProjectService;
+import com.freelancer.Utility.Money;
 import com.freelancer.Utility.ResultObject;
+import com.freelancer.exception.UploadTooLargeException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,7 +37,6 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.ResponseBody;
 
-import jakarta.servlet.http.HttpSession;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
 import com.freelancer.Service.UserService;
@@ -42,6 +52,16 @@ public class ProjectController {
     private ObjectService objectService;
     @Autowired
     private UserService userService;
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private DeadlineTimer deadlineTimer;
+    @Autowired
+    private AwardService awardService;
+    @Autowired
+    private FileStorageService fileStorageService;
+    @Autowired
+    private AttachmentsService attachmentsService;
 
     private static final Logger logger = LoggerFactory.getLogger(ProjectController.class);
     @GetMapping(path = "/allProjects", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -53,8 +73,14 @@ public class ProjectController {
 
     }
 
+    @GetMapping(path = "/allProjects", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProjects() {
+        logger.info("Streaming All Projects");
+        return new ResponseEntity<>(exportService.streamJsonArray(projectService::streamAllProjects), HttpStatus.OK);
+    }
+
     @PostMapping(path = "/getProjectById", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getProjectById(@RequestBody String project, HttpSession session) {
+    public ResponseEntity<?> getProjectById(@RequestBody String project) {
         ResultObject ro = new ResultObject("Project not found", "", null);
 
         JSONObject jsonObject = new JSONObject(project);
@@ -74,36 +100,27 @@ public class ProjectController {
 
 
     @PostMapping(path = "/hireFreelancer", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> hireFreelancer(@RequestBody String hireDetails, HttpSession session) {
+    public ResponseEntity<?> hireFreelancer(@RequestBody String hireDetails) {
         ResultObject ro = new ResultObject("Error Hiring Freelancer", "", null);
 
         JSONObject jsonObject = new JSONObject(hireDetails);
         try{
             long freelancer_id = jsonObject.getLong("freelancerId");
-            Project p = projectService.findById(jsonObject.getLong("projectId"));
+            long projectId = jsonObject.getLong("projectId");
+            // Accept the hired freelancer's bid, reject all others and close the project in one transaction
+            Project p = bidService.hireFreelancer(projectId, freelancer_id, jsonObject.getString("endDate"));
             if (p != null) {
-                p.setEndDate(jsonObject.getString("endDate"));
-                p.setFreelancerId(freelancer_id);
-                projectService.save(p);
-                logger.info("Project Details Updated");
-                logger.info("Updating All Bids");
-
-                List<Bid> bids = bidService.findByProjectId(jsonObject.getLong("projectId"));
-                for (Bid bid:bids) {
-                    logger.info("Updating Bid :"+ bid.toString());
-                    if(bid.getUserId()==freelancer_id){
-                        bid.setBid_status("BID_ACCEPTED");
-                    }else{
-                        bid.setBid_status("BID_REJECTED");
-                    }
-                    bidService.save(bid);
-                }
+                logger.info("Project Details and Bids Updated");
                 ro.setErrorMsg("");
                 ro.setSuccessMsg("Freelancer detail added to project");
                 ro.setData(p);
                 logger.info("Freelancer Hire Update");
                 return new ResponseEntity(ro, HttpStatus.OK);
 
+            } else if (projectService.findById(projectId) != null) {
+                ro.setErrorMsg("Project is no longer open for hiring");
+                ro.setSuccessMsg("");
+                return new ResponseEntity(ro, HttpStatus.CONFLICT);
             } else {
                 ro.setErrorMsg("Project not found");
                 ro.setSuccessMsg("");
@@ -119,13 +136,22 @@ public class ProjectController {
     }
 
     @PostMapping(path = "/getOpenProjects", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getOpenProjects(@RequestBody String userDetails, HttpSession session) {
+    public ResponseEntity<?> getOpenProjects(@RequestBody String userDetails) {
         // This returns a JSON with the users
         logger.info("Under : getOpenProjects");
         ResultObject ro = new ResultObject("Error Fetching Open Projects", "", null);
         try{
             JSONObject jsonObject = new JSONObject(userDetails);
-            if(jsonObject.has("id")){
+            if(jsonObject.has("id") && FeedQuery.isPaged(jsonObject)){
+                FeedPage<ProjectDetail> page = objectService.getOpenProjectsPage(Long.parseLong(jsonObject.getString("id")),
+                        FeedQuery.from(jsonObject));
+                ro.setErrorMsg("");
+                ro.setSuccessMsg("Open Projects Fetched");
+                ro.setData(page.getItems());
+                ro.setNextCursor(page.getNextCursor());
+                logger.info("Open Projects Page Fetched");
+                return new ResponseEntity(ro, HttpStatus.OK);
+            }else if(jsonObject.has("id")){
                 List data =  objectService.getOpenProjects(Long.parseLong(jsonObject.getString("id")));
                 ro.setErrorMsg("");
                 ro.setSuccessMsg("Open Projects Fetched");
@@ -147,7 +173,7 @@ public class ProjectController {
     }
 
     @PostMapping(path = "/getProjectDetail", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getProjectDetail(@RequestBody String projectDetails, HttpSession session) {
+    public ResponseEntity<?> getProjectDetail(@RequestBody String projectDetails) {
         // This returns a JSON with the users
         ResultObject ro = new ResultObject("Error Fetching Project Detail", "", null);
         try{
@@ -179,67 +205,8 @@ public class ProjectController {
             JSONObject jsonObject = new JSONObject(user);
             long employerId = jsonObject.getLong("id");
 
-            List<Project> projects = projectService.findByEmployerId(employerId);
-
-            List<ProjectDetail> openProjects = new ArrayList<>();
-            List<ProjectDetail> workInProgressProjects = new ArrayList<>();
-
-            for (Project project : projects) {
-                List<Bid> bids = bidService.findByProjectId(project.getId());
-                double avgBid = 0.0;
-                if (!bids.isEmpty()) {
-                    avgBid = bids.stream()
-                            .mapToDouble(b -> Double.parseDouble(b.getBid_amount().replaceAll("[^0-9.]", "")))
-                            .average()
-                            .orElse(0.0);
-                }
-
-                ProjectDetail detail = new ProjectDetail();
-                detail.setProjectId(project.getId());
-                detail.setProjectTitle(project.getTitle());
-                detail.setProjectSkill(project.getSkill());
-                detail.setProjectBudget(project.getRange());
-                detail.setProjectPeriod(project.getPeriod());
-                detail.setBidCount((long) bids.size());
-                detail.setAverageBid(avgBid);
-                detail.setEmployerId(project.getEmployerId());
-
-                // 🔹 Split by freelancer assignment
-                if (project.getFreelancerId() == null) {
-                    openProjects.add(detail);
-                } else {
-                    detail.setFreelancerId(project.getFreelancerId());
-
-                    // ✅ Fetch freelancer details from userService
-                    User freelancer = userService.findById(project.getFreelancerId());
-                    if (freelancer != null) {
-                        detail.setFreelancerName(freelancer.getName());
-                    } else {
-                        detail.setFreelancerName("Unknown Freelancer");
-                    }
-
-                    detail.setBidStatus("Work In Progress");
-
-                    // Fetch awarded bid details
-                    Bid awardedBid = bids.stream()
-                            .filter(b -> b.getUserId().equals(project.getFreelancerId()))
-                            .findFirst()
-                            .orElse(null);
-
-                    if (awardedBid != null) {
-                        detail.setBidAmount(awardedBid.getBid_amount());
-                    } else {
-                        detail.setBidAmount("-");
-                    }
-
-                    detail.setEndDate(project.getEndDate());
-                    workInProgressProjects.add(detail);
-                }
-            }
-
-            List<List<ProjectDetail>> responseData = new ArrayList<>();
-            responseData.add(openProjects);
-            responseData.add(workInProgressProjects);
+            // [open projects, work in progress] in one statement over the stats read model
+            List<List<ProjectDetail>> responseData = objectService.getEmployerDashboard(employerId);
 
             ro.setErrorMsg("");
             ro.setSuccessMsg("Projects Found");
@@ -258,7 +225,7 @@ public class ProjectController {
 
 
     @PostMapping(path = "/getUserBidProjects", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getUserBidProjects(@RequestBody String userDetails, HttpSession session) {
+    public ResponseEntity<?> getUserBidProjects(@RequestBody String userDetails) {
         // This returns a JSON with the users
         ResultObject ro = new ResultObject("Error Fetching User Projects", "", null);
         try{
@@ -291,10 +258,16 @@ public class ProjectController {
             @RequestParam("main_skill_id") String mainSkillId,
             @RequestParam("budget_range") String budgetRange,
             @RequestParam("budget_period") String budgetPeriod,
-            @RequestParam(value = "file", required = false) MultipartFile file
+            @RequestParam(value = "file", required = false) MultipartFile file,
+            @RequestParam(value = "award_strategy", required = false) String awardStrategy,
+            @RequestParam(value = "reserve_price", required = false) String reservePrice
     ) {
         ResultObject ro = new ResultObject("Error posting project", "", null);
         try {
+            if (awardStrategy != null && !awardService.isKnown(awardStrategy)) {
+                ro.setErrorMsg("Unknown award strategy " + awardStrategy + ", expected one of " + awardService.strategyNames());
+                return new ResponseEntity<>(ro, HttpStatus.BAD_REQUEST);
+            }
             Project project = new Project();
             project.setEmployerId(employerId);
             project.setTitle(title);
@@ -305,16 +278,27 @@ public class ProjectController {
             project.setPeriod(numericPeriod);
             project.setDatePosted(LocalDateTime.now());
             project.setBidDeadline(LocalDateTime.now().plusDays(7)); // bids close after 7 days
+            project.setAwardStrategy(awardStrategy);
+            if (reservePrice != null && !reservePrice.isBlank()) {
+                project.setReserveMinor(Money.parseMinor(reservePrice));
+            }
 
             if (file != null && !file.isEmpty()) {
-                logger.info("File uploaded: " + file.getOriginalFilename());
+                StoredFile stored = fileStorageService.storeDocument(file);
+                Attachments attachments = attachmentsService.create(stored);
+                project.setDocument_id(attachments.getId());
+                logger.info("File uploaded: " + stored.fileName());
             }
 
             Project saved = projectService.save(project);
+            deadlineTimer.schedule(saved);
             ro.setErrorMsg("");
             ro.setSuccessMsg("Project posted successfully!");
             ro.setData(saved);
             return new ResponseEntity<>(ro, HttpStatus.OK);
+        } catch (UploadTooLargeException e) {
+            ro.setErrorMsg(e.getMessage());
+            return new ResponseEntity<>(ro, HttpStatus.PAYLOAD_TOO_LARGE);
         } catch (Exception e) {
             e.printStackTrace();
             ro.setErrorMsg(e.getMessage());
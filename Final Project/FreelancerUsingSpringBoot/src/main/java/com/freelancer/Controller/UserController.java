@@ -1,22 +1,30 @@
 package com.freelancer.Controller;
 
+import com.freelancer.Auth.AuthClaims;
+import com.freelancer.Auth.AuthService;
 import com.freelancer.Entity.Attachments;
 import com.freelancer.Entity.User;
 import com.freelancer.Service.AttachmentsService;
+import com.freelancer.Service.ExportService;
+import com.freelancer.Service.ImageDerivativeService;
 import com.freelancer.Service.UserService;
 import com.freelancer.Utility.ResultObject;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpSession;
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 
 @Controller
@@ -29,37 +37,49 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     @PostMapping(path = "/signup", consumes = MediaType.APPLICATION_JSON_VALUE) // Map ONLY POST Requests
-    public ResponseEntity<?> addNewUser(@RequestBody User user, HttpSession session) {
+    public CompletableFuture<ResponseEntity<?>> addNewUser(@RequestBody User user, HttpServletRequest request) {
         // @ResponseBody means the returned String is the response, not a view name
         // @RequestParam means it is a parameter from the GET or POST request
+        // Hashing runs on the password pool; the request thread is released until it completes
         ResultObject ro = new ResultObject("Email allready Exists", "", null);
         try {
-            User u = userService.addUser(user);
-            if (u != null) {
-                logger.info("User Created");
-                logger.info(u.toString());
-                session.setAttribute("email", user.getEmail());
-                session.setAttribute("name", user.getName());
-                session.setAttribute("id", user.getId());
-                ro.setErrorMsg("");
-                ro.setSuccessMsg("Signup Success");
-                ro.setData(u);
-                return new ResponseEntity(ro, HttpStatus.OK);
-            } else {
-                logger.info("User allready exists");
-                ro.setErrorMsg("Email allready Exists");
-                ro.setSuccessMsg("");
-                return new ResponseEntity(ro, HttpStatus.OK);
-            }
-        } catch (NullPointerException e) {
-            logger.error(e.getMessage());
-            return new ResponseEntity(ro, HttpStatus.OK);
+            HttpSession session = authService.sessionFor(request);
+            return userService.addUser(user).<ResponseEntity<?>>thenApply(u -> {
+                if (u != null) {
+                    logger.info("User Created");
+                    logger.info(u.toString());
+                    HttpHeaders headers = authService.signIn(u, session);
+                    ro.setErrorMsg("");
+                    ro.setSuccessMsg("Signup Success");
+                    ro.setData(u);
+                    return new ResponseEntity<>(ro, headers, HttpStatus.OK);
+                } else {
+                    logger.info("User allready exists");
+                    ro.setErrorMsg("Email allready Exists");
+                    ro.setSuccessMsg("");
+                    return new ResponseEntity<>(ro, HttpStatus.OK);
+                }
+            }).exceptionally(e -> {
+                logger.error(e.getMessage());
+                return new ResponseEntity<>(ro, HttpStatus.OK);
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy(ro));
         } catch (Exception e) {
             logger.error(e.getMessage());
-            return new ResponseEntity(ro, HttpStatus.OK);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(ro, HttpStatus.OK));
         }
     }
 
@@ -70,33 +90,51 @@ public class UserController {
         return userService.getAllUsers();
     }
 
+    @GetMapping(path = "/all", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return new ResponseEntity<>(exportService.streamJsonArray(userService::streamAllUsers), HttpStatus.OK);
+    }
+
     @PostMapping(path = "/login", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> login(@RequestBody String user, HttpSession session) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody String user, HttpServletRequest request) {
         ResultObject ro = new ResultObject("Invalid username & password", "", null);
         try {
             JSONObject jsonObject = new JSONObject(user);
-            User data = userService.login(jsonObject.getString("email"), jsonObject.getString("password"));
-            if (data != null) {
-                session.setAttribute("email", data.getEmail());
-                session.setAttribute("name", data.getName());
-                session.setAttribute("id", data.getId());
-                ro.setErrorMsg("");
-                ro.setSuccessMsg("User found...Credentials Valid");
-                ro.setData(data);
-                return new ResponseEntity(ro, HttpStatus.OK);
-            } else {
-                ro.setErrorMsg("Username or password incorrect");
-                ro.setSuccessMsg("");
-                return new ResponseEntity(ro, HttpStatus.OK);
-            }
+            HttpSession session = authService.sessionFor(request);
+            return userService.login(jsonObject.getString("email"), jsonObject.getString("password")).<ResponseEntity<?>>thenApply(data -> {
+                if (data != null) {
+                    HttpHeaders headers = authService.signIn(data, session);
+                    ro.setErrorMsg("");
+                    ro.setSuccessMsg("User found...Credentials Valid");
+                    ro.setData(data);
+                    return new ResponseEntity<>(ro, headers, HttpStatus.OK);
+                } else {
+                    ro.setErrorMsg("Username or password incorrect");
+                    ro.setSuccessMsg("");
+                    return new ResponseEntity<>(ro, HttpStatus.OK);
+                }
+            }).exceptionally(e -> {
+                logger.error(e.getMessage());
+                return new ResponseEntity<>(ro, HttpStatus.OK);
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy(ro));
         } catch (Exception e) {
             logger.error(e.getMessage());
-            return new ResponseEntity(ro, HttpStatus.OK);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(ro, HttpStatus.OK));
         }
     }
 
+    // Password pool queue is full: fail fast so clients back off instead of piling onto request threads
+    private ResponseEntity<?> busy(ResultObject ro) {
+        logger.warn("Password hashing pool saturated, rejecting request");
+        ro.setErrorMsg("Server busy, please retry");
+        ro.setSuccessMsg("");
+        return new ResponseEntity<>(ro, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @PostMapping(path = "/getprofile", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getprofile(@RequestBody String user, HttpSession session) {
+    public ResponseEntity<?> getprofile(@RequestBody String user) {
         ResultObject ro = new ResultObject("User not found", "", null);
 
         JSONObject jsonObject = new JSONObject(user);
@@ -114,8 +152,9 @@ public class UserController {
         }
     }
 
+    // Without size the data is the stored link; with ?size=N it is the URL of the image at that size, for avatars
     @PostMapping(path = "/getprofileImage", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getprofileImage(@RequestBody User user, HttpSession session) {
+    public ResponseEntity<?> getprofileImage(@RequestBody User user, @RequestParam(value = "size", required = false) Integer size) {
         JSONObject jsonObject = new JSONObject(user);
         ResultObject ro = new ResultObject("Error fetching image", "", null);
         User u = userService.findById(jsonObject.getLong("id"));
@@ -126,7 +165,12 @@ public class UserController {
                 if(attachments!=null){
                     ro.setErrorMsg("");
                     ro.setSuccessMsg("getprofileImage Image Found");
-                    ro.setData(attachments.getLink());
+                    if (size != null && attachments.getSha256() != null) {
+                        ro.setData("/attachments/" + attachments.getId() + "?size=" + imageDerivativeService.sizeFor(size));
+                    } else {
+                        // Full size; uploads from before the blob store have no thumbnails
+                        ro.setData("/attachments/" + attachments.getId());
+                    }
                     return new ResponseEntity(ro, HttpStatus.OK);
                 }
                 else{
@@ -144,24 +188,26 @@ public class UserController {
     }
 
     @PostMapping(value = "/logout", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> logout(HttpSession session) {
-        session.invalidate();
+    public ResponseEntity<?> logout(HttpServletRequest request) {
+        HttpHeaders headers = authService.signOut(request);
         ResultObject ro = new ResultObject("", "Logout Successful", null);
-        return new ResponseEntity<>(ro, HttpStatus.OK);
+        return new ResponseEntity<>(ro, headers, HttpStatus.OK);
     }
 
 
     @GetMapping(value = "/isLoggedIn")
 //    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public ResponseEntity<?> isLoggedIn(HttpSession session) {
+    public ResponseEntity<?> isLoggedIn(HttpServletRequest request) {
         ResultObject ro = new ResultObject("Session Not Valid", "", null);
         logger.info("Under /isLoggedIn Post Request");
-        logger.info(session.getAttribute("email")+"");
+        AuthClaims claims = authService.current(request);
 
-        if (session.getAttribute("email") != null) {
+        if (claims != null) {
+            logger.info(claims.email());
             ro.setErrorMsg("");
             ro.setSuccessMsg("User Allready Logged in");
-            ro.setData(userService.findById(Long.parseLong(session.getAttribute("id")+"")));
+            // Token claims already hold id, name and email, which is all the client reads
+            ro.setData(authService.isTokenMode() ? claims : userService.findById(claims.id()));
             return new ResponseEntity(ro, HttpStatus.OK);
             } else {
             ro.setErrorMsg("Not Logged In");
@@ -171,7 +217,7 @@ public class UserController {
     }
 
     @PostMapping(path = "/updateProfile", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> updateprofile(@RequestBody String user, HttpSession session) {
+    public ResponseEntity<?> updateprofile(@RequestBody String user, HttpServletRequest request) {
         ResultObject ro = new ResultObject("Error updating user", "", null);
         try {
             JSONObject jsonObject = new JSONObject(user);
@@ -202,11 +248,16 @@ public class UserController {
                 if (updatedUser  != null) {
                     logger.info("User Updated");
                     logger.info(u.toString());
-                    session.setAttribute("email", updatedUser.getEmail());
+                    // Re-issue the login so a changed name or email shows up in the session or token
+                    HttpHeaders headers = new HttpHeaders();
+                    AuthClaims current = authService.current(request);
+                    if (current != null && current.id().equals(updatedUser.getId())) {
+                        headers = authService.signIn(updatedUser, authService.sessionFor(request));
+                    }
                     ro.setErrorMsg("");
                     ro.setSuccessMsg("Update Success");
                     ro.setData(u);
-                    return new ResponseEntity(ro, HttpStatus.OK);
+                    return new ResponseEntity(ro, headers, HttpStatus.OK);
                 } else {
                     logger.info("Email allready Exist");
                     ro.setErrorMsg("Email allready Exists");
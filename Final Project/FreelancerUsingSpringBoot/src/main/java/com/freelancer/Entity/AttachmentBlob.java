@@ -0,0 +1,65 @@
+package com.freelancer.Entity;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+
+/**
+ * One stored file in the content-addressed blob store, shared by every
+ * {@link Attachments} row with the same SHA-256. The row and the file are
+ * removed when the last reference is released; counts only change through
+ * {@link com.freelancer.Service.FileStorageService}.
+ */
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
+@Entity
+@Table(name = "attachment_blobs")
+public class AttachmentBlob implements Serializable {
+    @Id
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "size", nullable = false)
+    private long size;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+
+    public AttachmentBlob() {
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(long refCount) {
+        this.refCount = refCount;
+    }
+}
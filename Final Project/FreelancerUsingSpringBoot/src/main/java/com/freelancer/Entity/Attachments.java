@@ -12,16 +12,28 @@ import java.util.Date;
 
 @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
 @Entity
-@Table(name = "attachments")
+@Table(name = "attachments", indexes = {
+        @Index(name = "idx_attachments_sha256", columnList = "sha256")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Attachments implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attachments_seq")
+    @SequenceGenerator(name = "attachments_seq", sequenceName = "attachments_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
     private String link;
 
+    // Address of the content in the blob store; null for files uploaded before it existed
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "size")
+    private Long size;
+
+    @Column(name = "content_type")
+    private String contentType;
 
 
     public Long getId() {
@@ -40,10 +52,41 @@ public class Attachments implements Serializable {
         this.link = link;
     }
 
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
     public Attachments() {
     }
 
     public Attachments(String link) {
         this.link = link;
     }
+
+    public Attachments(String link, String sha256, long size, String contentType) {
+        this.link = link;
+        this.sha256 = sha256;
+        this.size = size;
+        this.contentType = contentType;
+    }
 }
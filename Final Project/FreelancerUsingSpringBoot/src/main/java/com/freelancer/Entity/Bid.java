@@ -2,6 +2,7 @@ package com.freelancer.Entity;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.freelancer.Utility.Money;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -12,11 +13,15 @@ import java.util.Date;
 
 @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
 @Entity
-@Table(name = "bid")
+@Table(name = "bid", indexes = {
+        @Index(name = "idx_bid_user_project", columnList = "user_id,project_id"),
+        @Index(name = "idx_bid_project_amount", columnList = "project_id,amount_minor")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Bid implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bid_seq")
+    @SequenceGenerator(name = "bid_seq", sequenceName = "bid_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -30,9 +35,16 @@ public class Bid implements Serializable {
     @NotBlank
     private String bid_period;
 
+    // Amount as entered by the client; kept for display, never parsed on read
     @NotBlank
     private String bid_amount;
 
+    @Column(name = "amount_minor")
+    private Long amountMinor;
+
+    @Column(name = "currency", length = 3)
+    private String currency = Money.DEFAULT_CURRENCY;
+
     @NotBlank
     private String bid_status;
 
@@ -45,7 +57,7 @@ public class Bid implements Serializable {
         this.userId = userId;
         this.projectId = projectId;
         this.bid_period = bid_period;
-        this.bid_amount = bid_amount;
+        setBid_amount(bid_amount);
         this.bid_status = bid_status;
     }
 
@@ -87,6 +99,23 @@ public class Bid implements Serializable {
 
     public void setBid_amount(String bid_amount) {
         this.bid_amount = bid_amount;
+        this.amountMinor = Money.parseMinor(bid_amount);
+    }
+
+    public Long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public void setAmountMinor(Long amountMinor) {
+        this.amountMinor = amountMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
     }
 
     public String getBid_status() {
@@ -3,6 +3,13 @@ import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.freelancer.POJO.BidDetailRow;
+import com.freelancer.POJO.EmployerProjectRow;
+import com.freelancer.POJO.OpenProjectRow;
+import com.freelancer.POJO.ProjectDetailRow;
+import com.freelancer.POJO.UserBidProjectRow;
+import com.freelancer.POJO.UserOpenProjectRow;
+import com.freelancer.POJO.UserProgressProjectRow;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -13,13 +20,122 @@ import java.util.Date;
 
 @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
 @Entity
-@Table(name = "project")
+@Table(name = "project", indexes = {
+        @Index(name = "idx_project_date_posted", columnList = "date_posted,id"),
+        @Index(name = "idx_project_status_deadline", columnList = "status,bid_deadline"),
+        @Index(name = "idx_project_employer", columnList = "employer_id")
+})
 @EntityListeners(AuditingEntityListener.class)
 @JsonIgnoreProperties(value = {"createdAt"},
         allowGetters = true)
+@NamedNativeQueries({
+        @NamedNativeQuery(name = "Project.openProjects", query = ProjectQueries.OPEN_PROJECTS,
+                resultSetMapping = "OpenProjectRow"),
+        @NamedNativeQuery(name = "Project.projectDetail", query = ProjectQueries.PROJECT_DETAIL,
+                resultSetMapping = "ProjectDetailRow"),
+        @NamedNativeQuery(name = "Project.userOpenProjects", query = ProjectQueries.USER_OPEN_PROJECTS,
+                resultSetMapping = "UserOpenProjectRow"),
+        @NamedNativeQuery(name = "Project.userProgressProjects", query = ProjectQueries.USER_PROGRESS_PROJECTS,
+                resultSetMapping = "UserProgressProjectRow"),
+        @NamedNativeQuery(name = "Project.userBidProjects", query = ProjectQueries.USER_BID_PROJECTS,
+                resultSetMapping = "UserBidProjectRow"),
+        @NamedNativeQuery(name = "Project.userBidDetails", query = ProjectQueries.USER_BID_DETAILS +
+                " order by a.date_posted desc,b.id desc", resultSetMapping = "BidDetailRow"),
+        @NamedNativeQuery(name = "Project.employerDashboard", query = ProjectQueries.EMPLOYER_DASHBOARD,
+                resultSetMapping = "EmployerProjectRow")
+})
+@SqlResultSetMappings({
+        @SqlResultSetMapping(name = "OpenProjectRow", classes = @ConstructorResult(targetClass = OpenProjectRow.class,
+                columns = {
+                        @ColumnResult(name = "employer_name", type = String.class),
+                        @ColumnResult(name = "project_id", type = Long.class),
+                        @ColumnResult(name = "employer_id", type = Long.class),
+                        @ColumnResult(name = "title", type = String.class),
+                        @ColumnResult(name = "main_skill_id", type = String.class),
+                        @ColumnResult(name = "budget_range", type = String.class),
+                        @ColumnResult(name = "budget_period", type = String.class),
+                        @ColumnResult(name = "average", type = Double.class),
+                        @ColumnResult(name = "bid_count", type = Long.class),
+                        @ColumnResult(name = "date_posted", type = LocalDateTime.class)})),
+        @SqlResultSetMapping(name = "ProjectDetailRow", classes = @ConstructorResult(targetClass = ProjectDetailRow.class,
+                columns = {
+                        @ColumnResult(name = "project_id", type = Long.class),
+                        @ColumnResult(name = "freelancer_id", type = Long.class),
+                        @ColumnResult(name = "document_id", type = Long.class),
+                        @ColumnResult(name = "description", type = String.class),
+                        @ColumnResult(name = "employer_id", type = Long.class),
+                        @ColumnResult(name = "title", type = String.class),
+                        @ColumnResult(name = "main_skill_id", type = String.class),
+                        @ColumnResult(name = "budget_range", type = String.class),
+                        @ColumnResult(name = "budget_period", type = String.class),
+                        @ColumnResult(name = "average", type = Double.class),
+                        @ColumnResult(name = "bid_count", type = Long.class),
+                        @ColumnResult(name = "link", type = String.class)})),
+        @SqlResultSetMapping(name = "UserOpenProjectRow", classes = @ConstructorResult(targetClass = UserOpenProjectRow.class,
+                columns = {
+                        @ColumnResult(name = "project_id", type = Long.class),
+                        @ColumnResult(name = "employer_id", type = Long.class),
+                        @ColumnResult(name = "title", type = String.class),
+                        @ColumnResult(name = "budget_range", type = String.class),
+                        @ColumnResult(name = "budget_period", type = String.class),
+                        @ColumnResult(name = "average", type = Double.class),
+                        @ColumnResult(name = "bid_count", type = Long.class)})),
+        @SqlResultSetMapping(name = "UserProgressProjectRow", classes = @ConstructorResult(targetClass = UserProgressProjectRow.class,
+                columns = {
+                        @ColumnResult(name = "freelancer_name", type = String.class),
+                        @ColumnResult(name = "project_id", type = Long.class),
+                        @ColumnResult(name = "employer_id", type = Long.class),
+                        @ColumnResult(name = "freelancer_id", type = Long.class),
+                        @ColumnResult(name = "title", type = String.class),
+                        @ColumnResult(name = "end_date", type = String.class),
+                        @ColumnResult(name = "bid_amount", type = String.class),
+                        @ColumnResult(name = "average", type = Double.class),
+                        @ColumnResult(name = "bid_count", type = Long.class)})),
+        @SqlResultSetMapping(name = "UserBidProjectRow", classes = @ConstructorResult(targetClass = UserBidProjectRow.class,
+                columns = {
+                        @ColumnResult(name = "employer_name", type = String.class),
+                        @ColumnResult(name = "project_id", type = Long.class),
+                        @ColumnResult(name = "employer_id", type = Long.class),
+                        @ColumnResult(name = "title", type = String.class),
+                        @ColumnResult(name = "main_skill_id", type = String.class),
+                        @ColumnResult(name = "budget_range", type = String.class),
+                        @ColumnResult(name = "budget_period", type = String.class),
+                        @ColumnResult(name = "bid_amount", type = String.class),
+                        @ColumnResult(name = "bid_status", type = String.class),
+                        @ColumnResult(name = "average", type = Double.class),
+                        @ColumnResult(name = "bid_count", type = Long.class)})),
+        @SqlResultSetMapping(name = "BidDetailRow", classes = @ConstructorResult(targetClass = BidDetailRow.class,
+                columns = {
+                        @ColumnResult(name = "bid_id", type = Long.class),
+                        @ColumnResult(name = "user_id", type = Long.class),
+                        @ColumnResult(name = "project_id", type = Long.class),
+                        @ColumnResult(name = "bid_period", type = String.class),
+                        @ColumnResult(name = "bid_amount", type = String.class),
+                        @ColumnResult(name = "bid_status", type = String.class),
+                        @ColumnResult(name = "bidder_name", type = String.class),
+                        @ColumnResult(name = "title", type = String.class),
+                        @ColumnResult(name = "employer_name", type = String.class),
+                        @ColumnResult(name = "average", type = Double.class),
+                        @ColumnResult(name = "date_posted", type = LocalDateTime.class)})),
+        @SqlResultSetMapping(name = "EmployerProjectRow", classes = @ConstructorResult(targetClass = EmployerProjectRow.class,
+                columns = {
+                        @ColumnResult(name = "project_id", type = Long.class),
+                        @ColumnResult(name = "employer_id", type = Long.class),
+                        @ColumnResult(name = "freelancer_id", type = Long.class),
+                        @ColumnResult(name = "title", type = String.class),
+                        @ColumnResult(name = "main_skill_id", type = String.class),
+                        @ColumnResult(name = "budget_range", type = String.class),
+                        @ColumnResult(name = "budget_period", type = String.class),
+                        @ColumnResult(name = "end_date", type = String.class),
+                        @ColumnResult(name = "freelancer_name", type = String.class),
+                        @ColumnResult(name = "bid_amount", type = String.class),
+                        @ColumnResult(name = "average", type = Double.class),
+                        @ColumnResult(name = "bid_count", type = Long.class)}))
+})
 public class Project implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "project_seq")
+    @SequenceGenerator(name = "project_seq", sequenceName = "project_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -64,6 +180,13 @@ public class Project implements Serializable {
     @Column(name = "date_posted")
     private LocalDateTime datePosted;
 
+    // Name of the AwardStrategy used at the deadline; null means lowest price
+    @Column(name = "award_strategy", length = 32)
+    private String awardStrategy;
+
+    @Column(name = "reserve_minor")
+    private Long reserveMinor;
+
     private Long document_id;
 
     public Project(){
@@ -79,6 +202,14 @@ public class Project implements Serializable {
         this.document_id = document_id;
     }
 
+    // Feeds paginate on (date_posted, id), so every row needs a posting date
+    @PrePersist
+    void onCreate() {
+        if (datePosted == null) {
+            datePosted = LocalDateTime.now();
+        }
+    }
+
     public Long getId() {
         return id;
     }
@@ -182,4 +313,20 @@ public class Project implements Serializable {
     public void setDatePosted(LocalDateTime datePosted) {
         this.datePosted = datePosted;
     }
+
+    public String getAwardStrategy() {
+        return awardStrategy;
+    }
+
+    public void setAwardStrategy(String awardStrategy) {
+        this.awardStrategy = awardStrategy;
+    }
+
+    public Long getReserveMinor() {
+        return reserveMinor;
+    }
+
+    public void setReserveMinor(Long reserveMinor) {
+        this.reserveMinor = reserveMinor;
+    }
 }
@@ -0,0 +1,103 @@
+package com.freelancer.Entity;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Read model holding the bid aggregates of one project. Rows are maintained
+ * incrementally by {@link com.freelancer.Service.ProjectBidStatsService} in the
+ * same transaction that writes the bids, so feed queries never have to group
+ * over the bid table.
+ */
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
+@Entity
+@Table(name = "project_bid_stats")
+public class ProjectBidStats implements Serializable {
+    @Id
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Column(name = "bid_count", nullable = false)
+    private long bidCount;
+
+    @Column(name = "bid_sum", nullable = false)
+    private double bidSum;
+
+    @Column(name = "min_bid")
+    private Double minBid;
+
+    @Column(name = "max_bid")
+    private Double maxBid;
+
+    // Bids still in BID_SENT state; reset when the project is awarded
+    @Column(name = "pending_count", nullable = false)
+    private long pendingCount;
+
+    @Column(name = "pending_sum", nullable = false)
+    private double pendingSum;
+
+    public ProjectBidStats() {
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public long getBidCount() {
+        return bidCount;
+    }
+
+    public void setBidCount(long bidCount) {
+        this.bidCount = bidCount;
+    }
+
+    public double getBidSum() {
+        return bidSum;
+    }
+
+    public void setBidSum(double bidSum) {
+        this.bidSum = bidSum;
+    }
+
+    public Double getMinBid() {
+        return minBid;
+    }
+
+    public void setMinBid(Double minBid) {
+        this.minBid = minBid;
+    }
+
+    public Double getMaxBid() {
+        return maxBid;
+    }
+
+    public void setMaxBid(Double maxBid) {
+        this.maxBid = maxBid;
+    }
+
+    public long getPendingCount() {
+        return pendingCount;
+    }
+
+    public void setPendingCount(long pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+
+    public double getPendingSum() {
+        return pendingSum;
+    }
+
+    public void setPendingSum(double pendingSum) {
+        this.pendingSum = pendingSum;
+    }
+
+    public double getAverage() {
+        return bidCount == 0 ? 0.0 : bidSum / bidCount;
+    }
+}
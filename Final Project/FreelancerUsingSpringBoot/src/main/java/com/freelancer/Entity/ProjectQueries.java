@@ -0,0 +1,55 @@
+package com.freelancer.Entity;
+
+/**
+ * SQL for the project read queries. The statements are registered as named
+ * native queries on {@link Project}; the feed variants in
+ * {@link com.freelancer.Service.ObjectService} append filters and keyset
+ * predicates to the same text. All inputs are bound parameters so the
+ * statement text is identical for every user.
+ */
+public final class ProjectQueries {
+
+    public static final String OPEN_PROJECTS = "select c.name as employer_name,a.id as project_id,a.employer_id,a.title," +
+            "a.main_skill_id,a.budget_range,a.budget_period,COALESCE(s.bid_sum/s.bid_count,0) as average," +
+            "COALESCE(s.bid_count,0) as bid_count,a.date_posted from project a left outer join project_bid_stats s " +
+            "on s.project_id=a.id join user c on c.id=a.employer_id where a.employer_id!=:userId and a.freelancer_id IS NULL";
+
+    public static final String PROJECT_DETAIL = "select a.id as project_id,a.freelancer_id,a.document_id,a.description," +
+            "a.employer_id,a.title,a.main_skill_id,a.budget_range,a.budget_period,COALESCE(s.bid_sum/s.bid_count,0) as average," +
+            "COALESCE(s.bid_count,0) as bid_count,b.link from project a left outer join project_bid_stats s " +
+            "on s.project_id=a.id join attachments b on b.id=a.document_id where a.id=:projectId";
+
+    public static final String USER_OPEN_PROJECTS = "select a.id as project_id,a.employer_id,a.title,a.budget_range," +
+            "a.budget_period,COALESCE(s.pending_sum/NULLIF(s.pending_count,0),0) as average," +
+            "COALESCE(s.pending_count,0) as bid_count from project a left outer join project_bid_stats s " +
+            "on s.project_id=a.id where a.employer_id=:userId and a.freelancer_id is NULL";
+
+    public static final String USER_PROGRESS_PROJECTS = "select c.name as freelancer_name,a.id as project_id,a.employer_id," +
+            "a.freelancer_id,a.title,a.end_date,b.bid_amount,COALESCE(s.bid_sum/s.bid_count,0) as average," +
+            "COALESCE(s.bid_count,0) as bid_count from project a join user c on c.id=a.freelancer_id left outer join bid b " +
+            "on b.project_id=a.id and b.user_id=a.freelancer_id and b.bid_status='BID_ACCEPTED' left outer join " +
+            "project_bid_stats s on s.project_id=a.id where a.employer_id=:userId";
+
+    public static final String USER_BID_PROJECTS = "select c.name as employer_name,a.id as project_id,a.employer_id,a.title," +
+            "a.main_skill_id,a.budget_range,a.budget_period,b.bid_amount,b.bid_status," +
+            "COALESCE(s.bid_sum/s.bid_count,0) as average,COALESCE(s.bid_count,0) as bid_count from bid b join project a " +
+            "on a.id=b.project_id left outer join project_bid_stats s on s.project_id=a.id join user c " +
+            "on c.id=a.employer_id where a.employer_id!=:userId and b.user_id=:userId";
+
+    public static final String USER_BID_DETAILS = "select b.id as bid_id,b.user_id,b.project_id,b.bid_period,b.bid_amount," +
+            "b.bid_status,u.name as bidder_name,a.title,c.name as employer_name,COALESCE(s.bid_sum/s.bid_count,0) as average," +
+            "a.date_posted from bid b join project a on a.id=b.project_id join user u on u.id=b.user_id join user c " +
+            "on c.id=a.employer_id left outer join project_bid_stats s on s.project_id=a.id where b.user_id=:userId";
+
+    // Open and in-progress projects of an employer in one pass; the awarded amount is the freelancer's accepted bid,
+    // or their earliest bid on projects hired before bids carried statuses
+    public static final String EMPLOYER_DASHBOARD = "select a.id as project_id,a.employer_id,a.freelancer_id,a.title," +
+            "a.main_skill_id,a.budget_range,a.budget_period,a.end_date,f.name as freelancer_name,(select b.bid_amount " +
+            "from bid b where b.user_id=a.freelancer_id and b.project_id=a.id order by b.bid_status='BID_ACCEPTED' desc," +
+            "b.id limit 1) as bid_amount,COALESCE(s.bid_sum/s.bid_count,0) as average,COALESCE(s.bid_count,0) as bid_count " +
+            "from project a left outer join project_bid_stats s on s.project_id=a.id left outer join user f " +
+            "on f.id=a.freelancer_id where a.employer_id=:userId order by a.id";
+
+    private ProjectQueries() {
+    }
+}
@@ -3,6 +3,7 @@ package com.freelancer.Entity;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -14,13 +15,17 @@ import java.util.Date;
 
 @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
 @Entity
-@Table(name = "user")
+// Unique so two concurrent signups with one email cannot both pass UserService's lookup and insert
+@Table(name = "user", indexes = {
+        @Index(name = "uk_user_email", columnList = "email", unique = true)
+})
 @EntityListeners(AuditingEntityListener.class)
 @JsonIgnoreProperties(value = {"createdAt"},
         allowGetters = true)
 public class User implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -93,7 +98,9 @@ public class User implements Serializable {
         this.skills = skills;
     }
 
+    // Read from signup requests, never written into a response
     @NotBlank
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
 
@@ -122,6 +129,18 @@ public class User implements Serializable {
         this.password = password;
     }
 
+    // Copies everything but the password hash, for handing out cached users
+    public User(User other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.email = other.email;
+        this.phone = other.phone;
+        this.about = other.about;
+        this.profile_id = other.profile_id;
+        this.skills = other.skills;
+        this.createdAt = other.createdAt;
+    }
+
     public User(String name, String email, String password, long phone, String about, String skills) {
         this.name = name;
         this.email = email;
@@ -0,0 +1,55 @@
+package com.freelancer.Metrics;
+
+import com.freelancer.POJO.BidsChanged;
+import com.freelancer.POJO.ProjectAwarded;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Counters for what the marketplace does. Bids and awards are counted from
+ * the domain events after commit, so rolled back work is never counted.
+ * Project closings are counted by BidScheduler, per resulting status.
+ */
+@Component
+public class BusinessMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter bidsPlaced;
+    private Counter projectsAwarded;
+    private Counter uploadBytes;
+    private Counter uploadFiles;
+
+    @PostConstruct
+    public void init() {
+        bidsPlaced = Counter.builder("freelancer.bids.placed").register(meterRegistry);
+        projectsAwarded = Counter.builder("freelancer.projects.awarded")
+                .description("Projects awarded to a freelancer, by the closing job or by hiring")
+                .register(meterRegistry);
+        uploadBytes = Counter.builder("freelancer.uploads.bytes").baseUnit("bytes").register(meterRegistry);
+        uploadFiles = Counter.builder("freelancer.uploads.files").register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidsChanged(BidsChanged event) {
+        bidsPlaced.increment(event.bids().size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectAwarded(ProjectAwarded event) {
+        if (event.winningBidId() != null) {
+            projectsAwarded.increment();
+        }
+    }
+
+    public void uploaded(long bytes) {
+        uploadFiles.increment();
+        uploadBytes.increment(bytes);
+    }
+}
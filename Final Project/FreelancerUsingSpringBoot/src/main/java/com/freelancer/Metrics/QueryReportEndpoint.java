@@ -0,0 +1,27 @@
+package com.freelancer.Metrics;
+
+import com.freelancer.POJO.QueryReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+// Admin view of QueryStats at /actuator/queries; DELETE clears both windows, e.g. before a load test
+@Component
+@Endpoint(id = "queries")
+public class QueryReportEndpoint {
+
+    @Autowired
+    private QueryStats queryStats;
+
+    @ReadOperation
+    public QueryReport report() {
+        return queryStats.report();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        queryStats.reset();
+    }
+}
@@ -0,0 +1,153 @@
+package com.freelancer.Metrics;
+
+import com.freelancer.POJO.QueryReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rolling statement timings per fingerprint and the endpoints that went over
+ * their query budget. Two windows are kept and rotated every window-ms, so the
+ * report always covers between one and two windows of traffic.
+ */
+@Component
+public class QueryStats {
+
+    @Value("${freelancer.db.inspector.slow-ms:200}")
+    private long slowMs;
+    // A request is flagged above max-statements in total, or when one statement repeats max-repeats times
+    @Value("${freelancer.db.inspector.max-statements:30}")
+    private int maxStatements;
+    @Value("${freelancer.db.inspector.max-repeats:10}")
+    private int maxRepeats;
+    @Value("${freelancer.db.inspector.window-ms:900000}")
+    private long windowMs;
+    @Value("${freelancer.db.inspector.top:20}")
+    private int top;
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryStats.class);
+
+    private volatile Window current = new Window();
+    private volatile Window previous = new Window();
+
+    public void record(String fingerprint, long nanos) {
+        current.statements.computeIfAbsent(fingerprint, k -> new StatementStat()).add(nanos);
+        if (nanos >= slowMs * 1_000_000) {
+            logger.warn("Slow SQL took {} ms: {}", nanos / 1_000_000, fingerprint);
+        }
+    }
+
+    // Returns true when the request went over budget; it is then logged and kept for the report
+    public boolean check(String uri, StatementTally tally) {
+        int repeats = tally.maxRepeats();
+        if (tally.total() <= maxStatements && repeats < maxRepeats) {
+            return false;
+        }
+        String repeated = tally.mostRepeated();
+        logger.warn("Query budget exceeded on {}: {} statements, {} of them: {}", uri, tally.total(), repeats, repeated);
+        current.suspects.computeIfAbsent(uri, k -> new SuspectStat()).add(tally.total(), repeats, repeated);
+        return true;
+    }
+
+    @Scheduled(initialDelayString = "${freelancer.db.inspector.window-ms:900000}",
+            fixedRateString = "${freelancer.db.inspector.window-ms:900000}")
+    public void rotate() {
+        previous = current;
+        current = new Window();
+    }
+
+    public void reset() {
+        previous = new Window();
+        current = new Window();
+    }
+
+    public QueryReport report() {
+        Window older = previous;
+        Window newer = current;
+
+        Map<String, long[]> statements = new HashMap<>();
+        for (Window window : List.of(older, newer)) {
+            window.statements.forEach((fingerprint, stat) -> {
+                long[] totals = statements.computeIfAbsent(fingerprint, k -> new long[3]);
+                totals[0] += stat.count.sum();
+                totals[1] += stat.totalNanos.sum();
+                totals[2] = Math.max(totals[2], stat.maxNanos.get());
+            });
+        }
+        List<QueryReport.SqlStat> stats = new ArrayList<>(statements.size());
+        statements.forEach((fingerprint, totals) -> stats.add(new QueryReport.SqlStat(fingerprint, totals[0],
+                totals[1] / 1e6, totals[0] > 0 ? totals[1] / 1e6 / totals[0] : 0.0, totals[2] / 1e6)));
+
+        Map<String, QueryReport.Suspect> suspects = new HashMap<>();
+        for (Window window : List.of(older, newer)) {
+            window.suspects.forEach((uri, stat) -> suspects.merge(uri, stat.snapshot(uri), QueryStats::worse));
+        }
+        List<QueryReport.Suspect> flagged = new ArrayList<>(suspects.values());
+        flagged.sort(Comparator.comparingLong(QueryReport.Suspect::flagged).reversed());
+
+        return new QueryReport(windowMs,
+                topBy(stats, Comparator.comparingDouble(QueryReport.SqlStat::totalMs)),
+                topBy(stats, Comparator.comparingDouble(QueryReport.SqlStat::maxMs)),
+                flagged.subList(0, Math.min(top, flagged.size())));
+    }
+
+    private List<QueryReport.SqlStat> topBy(List<QueryReport.SqlStat> stats, Comparator<QueryReport.SqlStat> order) {
+        List<QueryReport.SqlStat> sorted = new ArrayList<>(stats);
+        sorted.sort(order.reversed());
+        return sorted.subList(0, Math.min(top, sorted.size()));
+    }
+
+    private static QueryReport.Suspect worse(QueryReport.Suspect a, QueryReport.Suspect b) {
+        QueryReport.Suspect worst = a.maxStatements() >= b.maxStatements() ? a : b;
+        return new QueryReport.Suspect(a.uri(), a.flagged() + b.flagged(), worst.maxStatements(), worst.repeats(), worst.repeatedSql());
+    }
+
+    private static final class Window {
+        final Map<String, StatementStat> statements = new ConcurrentHashMap<>();
+        final Map<String, SuspectStat> suspects = new ConcurrentHashMap<>();
+    }
+
+    private static final class StatementStat {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    // Flagged requests are rare, so a lock is fine here
+    private static final class SuspectStat {
+        private long flagged;
+        private int maxStatements;
+        private int repeats;
+        private String repeatedSql;
+
+        synchronized void add(int statements, int repeats, String repeatedSql) {
+            flagged++;
+            if (statements >= maxStatements) {
+                this.maxStatements = statements;
+                this.repeats = repeats;
+                this.repeatedSql = repeatedSql;
+            }
+        }
+
+        synchronized QueryReport.Suspect snapshot(String uri) {
+            return new QueryReport.Suspect(uri, flagged, maxStatements, repeats, repeatedSql);
+        }
+    }
+}
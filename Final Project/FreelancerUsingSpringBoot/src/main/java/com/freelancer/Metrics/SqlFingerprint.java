@@ -0,0 +1,102 @@
+package com.freelancer.Metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reduces SQL to its shape so executions of the same statement group
+ * together: literals become ?, IN lists of any length become (?) and
+ * whitespace is collapsed. Hibernate generates a small, fixed set of
+ * statements, so fingerprints are memoised per SQL string.
+ */
+public final class SqlFingerprint {
+
+    private static final int CACHE_LIMIT = 4096;
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        String fingerprint = CACHE.get(sql);
+        if (fingerprint == null) {
+            fingerprint = normalize(sql);
+            if (CACHE.size() < CACHE_LIMIT) {
+                CACHE.put(sql, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int n = sql.length();
+        for (int i = 0; i < n; i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // String literal; '' is an escaped quote inside it
+                i++;
+                while (i < n) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                appendParameter(out);
+            } else if (Character.isDigit(c) && !isIdentifierPart(last(out))) {
+                while (i + 1 < n && (Character.isLetterOrDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '.')) {
+                    i++;
+                }
+                appendParameter(out);
+            } else if (c == '?') {
+                appendParameter(out);
+            } else if (Character.isWhitespace(c)) {
+                if (out.length() > 0 && last(out) != ' ') {
+                    out.append(' ');
+                }
+            } else {
+                out.append(c);
+            }
+        }
+        int end = out.length();
+        if (end > 0 && out.charAt(end - 1) == ' ') {
+            out.setLength(end - 1);
+        }
+        return out.toString();
+    }
+
+    // Folds "?, ?" into the previous ?, so lists of any length share a fingerprint
+    private static void appendParameter(StringBuilder out) {
+        int end = out.length();
+        if (end > 0 && out.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end > 0 && out.charAt(end - 1) == '?') {
+            out.setLength(end);
+            return;
+        }
+        if (end > 0 && out.charAt(end - 1) == ',') {
+            int before = end - 1;
+            if (before > 0 && out.charAt(before - 1) == ' ') {
+                before--;
+            }
+            if (before > 0 && out.charAt(before - 1) == '?') {
+                out.setLength(before);
+                return;
+            }
+        }
+        out.append('?');
+    }
+
+    private static char last(StringBuilder out) {
+        return out.length() > 0 ? out.charAt(out.length() - 1) : ' ';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
@@ -0,0 +1,110 @@
+package com.freelancer.Metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+
+/**
+ * Sees every SQL statement Hibernate prepares. Keeps a process-wide total,
+ * tallies statements by fingerprint between begin() and end() on the same
+ * thread for StatementMetricsFilter, and with StatementTimingListener times
+ * each execution for QueryStats. Queries issued through JdbcTemplate are not
+ * seen.
+ */
+@Component
+public class StatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<ThreadState> STATE = ThreadLocal.withInitial(ThreadState::new);
+    // StatementTimingListener is instantiated by Hibernate, not Spring, and reaches QueryStats through this
+    private static volatile QueryStats timings;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private QueryStats queryStats;
+
+    private Counter total;
+
+    @PostConstruct
+    public void init() {
+        total = Counter.builder("freelancer.db.statements")
+                .description("SQL statements prepared by Hibernate")
+                .register(meterRegistry);
+        timings = queryStats;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, StatementTimingListener.class.getName());
+    }
+
+    @Override
+    public String inspect(String sql) {
+        total.increment();
+        ThreadState state = STATE.get();
+        state.fingerprint = SqlFingerprint.of(sql);
+        if (state.tally != null) {
+            state.tally.add(state.fingerprint);
+        }
+        return sql;
+    }
+
+    public void begin() {
+        STATE.get().tally = new StatementTally();
+    }
+
+    // Statements prepared on this thread since begin()
+    public StatementTally end() {
+        ThreadState state = STATE.get();
+        StatementTally tally = state.tally != null ? state.tally : new StatementTally();
+        state.tally = null;
+        return tally;
+    }
+
+    // Counts what work issues on this thread, so tests can put a budget on it:
+    // statementCounter.capture(() -> bidController.getProjectBids(body)).assertAtMost(3)
+    public StatementTally capture(Runnable work) {
+        ThreadState state = STATE.get();
+        StatementTally outer = state.tally;
+        StatementTally tally = new StatementTally();
+        state.tally = tally;
+        try {
+            work.run();
+        } finally {
+            state.tally = outer;
+            if (outer != null) {
+                outer.addAll(tally);
+            }
+        }
+        return tally;
+    }
+
+    static void executionStarted() {
+        STATE.get().executionStart = System.nanoTime();
+    }
+
+    static void executionEnded() {
+        ThreadState state = STATE.get();
+        QueryStats stats = timings;
+        if (stats != null && state.fingerprint != null && state.executionStart != 0) {
+            stats.record(state.fingerprint, System.nanoTime() - state.executionStart);
+        }
+        state.executionStart = 0;
+    }
+
+    private static final class ThreadState {
+        // Null outside a request or capture()
+        StatementTally tally;
+        // Last statement prepared on this thread, which is the one being executed
+        String fingerprint;
+        long executionStart;
+    }
+}
@@ -0,0 +1,56 @@
+package com.freelancer.Metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Records how many statements each request ran, tagged with the controller
+ * mapping like http.server.requests, so a handler that queries per row shows
+ * up as a high count next to its latency. Requests over the query budget are
+ * logged and reported by QueryStats. Work handed to other threads (async
+ * logins, write-behind bids) is not attributed to the request.
+ */
+@Component
+public class StatementMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private StatementCounter statementCounter;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private QueryStats queryStats;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        statementCounter.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            StatementTally tally = statementCounter.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("freelancer.db.statements.per.request")
+                    .description("Hibernate statements run while serving one request")
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(1.0)
+                    .maximumExpectedValue(1000.0)
+                    .register(meterRegistry)
+                    .record(tally.total());
+            if (queryStats.check(uri, tally)) {
+                meterRegistry.counter("freelancer.db.budget.exceeded", "uri", uri).increment();
+            }
+        }
+    }
+}
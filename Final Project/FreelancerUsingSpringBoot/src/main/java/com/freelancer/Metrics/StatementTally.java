@@ -0,0 +1,63 @@
+package com.freelancer.Metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statements issued by one request or one StatementCounter.capture() call,
+ * grouped by fingerprint. A fingerprint that repeats once per row is the
+ * usual sign of an N+1.
+ */
+public final class StatementTally {
+
+    private int total;
+    private final Map<String, Integer> byFingerprint = new HashMap<>();
+
+    void add(String fingerprint) {
+        total++;
+        byFingerprint.merge(fingerprint, 1, Integer::sum);
+    }
+
+    void addAll(StatementTally other) {
+        total += other.total;
+        other.byFingerprint.forEach((fingerprint, count) -> byFingerprint.merge(fingerprint, count, Integer::sum));
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public Map<String, Integer> byFingerprint() {
+        return Collections.unmodifiableMap(byFingerprint);
+    }
+
+    // The statement issued most often, or null when none ran
+    public String mostRepeated() {
+        String most = null;
+        int max = 0;
+        for (Map.Entry<String, Integer> entry : byFingerprint.entrySet()) {
+            if (entry.getValue() > max) {
+                max = entry.getValue();
+                most = entry.getKey();
+            }
+        }
+        return most;
+    }
+
+    public int maxRepeats() {
+        int max = 0;
+        for (int count : byFingerprint.values()) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+
+    // Query budget check for tests, e.g. statementCounter.capture(() -> ...).assertAtMost(3)
+    public void assertAtMost(int max) {
+        if (total > max) {
+            throw new AssertionError("Expected at most " + max + " statements but " + total + " ran; most repeated ("
+                    + maxRepeats() + "x): " + mostRepeated());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.freelancer.Metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+// Created by Hibernate for every session (hibernate.session.events.auto), so it reports through StatementCounter's statics
+public class StatementTimingListener extends BaseSessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        StatementCounter.executionStarted();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        StatementCounter.executionEnded();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        StatementCounter.executionStarted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        StatementCounter.executionEnded();
+    }
+}
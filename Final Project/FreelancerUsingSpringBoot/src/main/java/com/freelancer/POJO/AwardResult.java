@@ -0,0 +1,9 @@
+package com.freelancer.POJO;
+
+// Outcome of running a project's award strategy; winningBidId is null when no bid qualified
+public record AwardResult(int bidCount, Long winningBidId, Long winnerUserId) {
+
+    public boolean hasWinner() {
+        return winningBidId != null;
+    }
+}
@@ -0,0 +1,4 @@
+package com.freelancer.POJO;
+
+public record BidAmount(Long bidId, String amount) {
+}
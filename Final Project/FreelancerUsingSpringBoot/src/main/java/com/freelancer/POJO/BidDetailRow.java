@@ -0,0 +1,13 @@
+package com.freelancer.POJO;
+
+import java.time.LocalDateTime;
+
+public record BidDetailRow(long id, long userId, long projectId, String bidPeriod, String bidAmount, String bidStatus,
+                           String userName, String projectTitle, String employerName, double averageBid,
+                           LocalDateTime datePosted) {
+
+    public BidDetail toBidDetail() {
+        return new BidDetail(id, userId, projectId, bidPeriod, bidAmount, bidStatus, userName, projectTitle,
+                employerName, averageBid);
+    }
+}
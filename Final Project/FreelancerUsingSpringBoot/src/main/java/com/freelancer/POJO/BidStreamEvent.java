@@ -0,0 +1,7 @@
+package com.freelancer.POJO;
+
+import java.util.List;
+
+// Payload of a "bids" event on /streamProjectBids/{id}: the changed bids plus the project's current aggregates
+public record BidStreamEvent(long projectId, List<BidDetail> bids, long bidCount, double averageBid) {
+}
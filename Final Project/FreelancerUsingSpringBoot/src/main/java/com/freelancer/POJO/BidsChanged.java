@@ -0,0 +1,9 @@
+package com.freelancer.POJO;
+
+import com.freelancer.Entity.Bid;
+
+import java.util.List;
+
+// Published by BidService whenever bids are created or change status; fanned out after commit
+public record BidsChanged(List<Bid> bids) {
+}
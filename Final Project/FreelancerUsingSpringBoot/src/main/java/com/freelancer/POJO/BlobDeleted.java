@@ -0,0 +1,5 @@
+package com.freelancer.POJO;
+
+// Published by FileStorageService when the last reference to a blob is released and its file is removed
+public record BlobDeleted(String sha256) {
+}
@@ -0,0 +1,31 @@
+package com.freelancer.POJO;
+
+// One row per project of an employer; freelancerId is null while the project is still open
+public record EmployerProjectRow(long projectId, long employerId, Long freelancerId, String title, String skill,
+                                 String budgetRange, String budgetPeriod, String endDate, String freelancerName,
+                                 String bidAmount, double averageBid, long bidCount) {
+
+    public boolean isOpen() {
+        return freelancerId == null;
+    }
+
+    public ProjectDetail toProjectDetail() {
+        ProjectDetail projectDetail = new ProjectDetail();
+        projectDetail.setProjectId(projectId);
+        projectDetail.setProjectTitle(title);
+        projectDetail.setProjectSkill(skill);
+        projectDetail.setProjectBudget(budgetRange);
+        projectDetail.setProjectPeriod(budgetPeriod);
+        projectDetail.setBidCount(bidCount);
+        projectDetail.setAverageBid(averageBid);
+        projectDetail.setEmployerId(employerId);
+        if (!isOpen()) {
+            projectDetail.setFreelancerId(freelancerId);
+            projectDetail.setFreelancerName(freelancerName != null ? freelancerName : "Unknown Freelancer");
+            projectDetail.setBidStatus("Work In Progress");
+            projectDetail.setBidAmount(bidAmount != null ? bidAmount : "-");
+            projectDetail.setEndDate(endDate);
+        }
+        return projectDetail;
+    }
+}
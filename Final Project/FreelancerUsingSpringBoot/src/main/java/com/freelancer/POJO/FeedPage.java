@@ -0,0 +1,20 @@
+package com.freelancer.POJO;
+
+import java.util.List;
+
+public class FeedPage<T> {
+    private List<T> items;
+    private String nextCursor;
+
+    public FeedPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    // Null once the last page has been returned
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,51 @@
+package com.freelancer.POJO;
+
+import com.freelancer.Utility.FeedCursor;
+import org.json.JSONObject;
+
+public class FeedQuery {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private FeedCursor cursor;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private String skill;
+    private String budget;
+
+    public FeedQuery() {
+    }
+
+    public FeedQuery(FeedCursor cursor, int pageSize, String skill, String budget) {
+        this.cursor = cursor;
+        this.pageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        this.skill = skill;
+        this.budget = budget;
+    }
+
+    // Requests without paging keys keep the legacy unpaginated responses
+    public static boolean isPaged(JSONObject json) {
+        return json.has("pageSize") || json.has("cursor");
+    }
+
+    public static FeedQuery from(JSONObject json) {
+        String cursor = json.optString("cursor", "");
+        String skill = json.optString("skill", "");
+        String budget = json.optString("budget", "");
+        return new FeedQuery(cursor.isEmpty() ? null : FeedCursor.decode(cursor),
+                json.optInt("pageSize", DEFAULT_PAGE_SIZE),
+                skill.isEmpty() ? null : skill,
+                budget.isEmpty() ? null : budget);
+    }
+
+    public FeedCursor getCursor() { return cursor; }
+    public void setCursor(FeedCursor cursor) { this.cursor = cursor; }
+
+    public int getPageSize() { return pageSize; }
+    public void setPageSize(int pageSize) { this.pageSize = pageSize; }
+
+    public String getSkill() { return skill; }
+    public void setSkill(String skill) { this.skill = skill; }
+
+    public String getBudget() { return budget; }
+    public void setBudget(String budget) { this.budget = budget; }
+}
@@ -0,0 +1,6 @@
+package com.freelancer.POJO;
+
+// Snapshot of the password hashing pool: backlog, throughput and how long each hash took
+public record HashingStats(int queueDepth, int activeThreads, int poolSize, long completed, long rejected,
+                           double averageLatencyMs, double maxLatencyMs) {
+}
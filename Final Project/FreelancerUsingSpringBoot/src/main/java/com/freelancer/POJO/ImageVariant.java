@@ -0,0 +1,7 @@
+package com.freelancer.POJO;
+
+import java.nio.file.Path;
+
+// A generated thumbnail of a blob store image, at most size pixels on each side
+public record ImageVariant(String sha256, int size, Path path, String contentType) {
+}
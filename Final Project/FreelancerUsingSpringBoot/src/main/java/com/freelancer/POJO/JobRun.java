@@ -0,0 +1,7 @@
+package com.freelancer.POJO;
+
+import java.time.LocalDateTime;
+
+// Outcome of one scheduler run: how long it took, what it processed and what was still due afterwards
+public record JobRun(LocalDateTime startedAt, long durationMs, int processed, long backlog) {
+}
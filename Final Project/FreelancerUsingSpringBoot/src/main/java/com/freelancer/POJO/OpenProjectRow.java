@@ -0,0 +1,22 @@
+package com.freelancer.POJO;
+
+import java.time.LocalDateTime;
+
+public record OpenProjectRow(String employerName, long projectId, long employerId, String title, String skill,
+                             String budget, String period, double averageBid, long bidCount,
+                             LocalDateTime datePosted) {
+
+    public ProjectDetail toProjectDetail() {
+        ProjectDetail projectDetail = new ProjectDetail();
+        projectDetail.setEmployerName(employerName);
+        projectDetail.setProjectId(projectId);
+        projectDetail.setEmployerId(employerId);
+        projectDetail.setProjectTitle(title);
+        projectDetail.setProjectSkill(skill);
+        projectDetail.setProjectBudget(budget);
+        projectDetail.setProjectPeriod(period);
+        projectDetail.setAverageBid(averageBid);
+        projectDetail.setBidCount(bidCount);
+        return projectDetail;
+    }
+}
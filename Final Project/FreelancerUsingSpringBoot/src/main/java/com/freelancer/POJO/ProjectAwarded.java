@@ -0,0 +1,6 @@
+package com.freelancer.POJO;
+
+// Published by BidService.awardProject; every bid of the project changed status in one bulk update.
+// winningBidId is null when the project closed without a winner.
+public record ProjectAwarded(long projectId, Long winningBidId) {
+}
@@ -0,0 +1,6 @@
+package com.freelancer.POJO;
+
+import java.time.LocalDateTime;
+
+public record ProjectDeadline(Long projectId, LocalDateTime bidDeadline) {
+}
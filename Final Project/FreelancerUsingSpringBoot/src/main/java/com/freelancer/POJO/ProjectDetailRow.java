@@ -0,0 +1,23 @@
+package com.freelancer.POJO;
+
+public record ProjectDetailRow(long projectId, Long freelancerId, Long documentId, String description, long employerId,
+                               String title, String skill, String budget, String period, double averageBid,
+                               long bidCount, String documentPath) {
+
+    public ProjectDetail toProjectDetail() {
+        ProjectDetail projectDetail = new ProjectDetail();
+        projectDetail.setProjectId(projectId);
+        projectDetail.setFreelancerId(freelancerId);
+        projectDetail.setDocumentId(documentId);
+        projectDetail.setProjectDescription(description);
+        projectDetail.setEmployerId(employerId);
+        projectDetail.setProjectTitle(title);
+        projectDetail.setProjectSkill(skill);
+        projectDetail.setProjectBudget(budget);
+        projectDetail.setProjectPeriod(period);
+        projectDetail.setAverageBid(averageBid);
+        projectDetail.setBidCount(bidCount);
+        projectDetail.setDocumentPath(documentPath);
+        return projectDetail;
+    }
+}
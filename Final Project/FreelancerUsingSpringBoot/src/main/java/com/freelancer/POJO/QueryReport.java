@@ -0,0 +1,14 @@
+package com.freelancer.POJO;
+
+import java.util.List;
+
+// Rolling view of the persistence layer: statements by total and worst time, and endpoints that broke their query budget
+public record QueryReport(long windowMs, List<SqlStat> byTotalTime, List<SqlStat> slowest, List<Suspect> suspects) {
+
+    public record SqlStat(String fingerprint, long executions, double totalMs, double averageMs, double maxMs) {
+    }
+
+    // repeatedSql is the statement the worst flagged request ran most often, repeats how many times it ran
+    public record Suspect(String uri, long flagged, int maxStatements, int repeats, String repeatedSql) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.freelancer.POJO;
+
+// An upload committed to disk: the name it was stored under and how many bytes were written. Files in the blob
+// store also carry their SHA-256 and content type, and whether identical content was already there.
+public record StoredFile(String fileName, long size, String sha256, String contentType, boolean deduplicated) {
+}
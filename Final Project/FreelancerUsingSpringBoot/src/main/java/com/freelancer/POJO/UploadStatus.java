@@ -0,0 +1,5 @@
+package com.freelancer.POJO;
+
+// Progress of a chunked upload: offset is where the client resumes, received counts every verified byte
+public record UploadStatus(String id, String fileName, long size, long offset, long received, long expiresAt) {
+}
@@ -0,0 +1,22 @@
+package com.freelancer.POJO;
+
+public record UserBidProjectRow(String employerName, long projectId, long employerId, String title, String skill,
+                                String budget, String period, String bidAmount, String bidStatus,
+                                double averageBid, long bidCount) {
+
+    public ProjectDetail toProjectDetail() {
+        ProjectDetail projectDetail = new ProjectDetail();
+        projectDetail.setEmployerName(employerName);
+        projectDetail.setProjectId(projectId);
+        projectDetail.setEmployerId(employerId);
+        projectDetail.setProjectTitle(title);
+        projectDetail.setProjectSkill(skill);
+        projectDetail.setProjectBudget(budget);
+        projectDetail.setProjectPeriod(period);
+        projectDetail.setBidAmount(bidAmount);
+        projectDetail.setBidStatus(bidStatus);
+        projectDetail.setAverageBid(averageBid);
+        projectDetail.setBidCount(bidCount);
+        return projectDetail;
+    }
+}
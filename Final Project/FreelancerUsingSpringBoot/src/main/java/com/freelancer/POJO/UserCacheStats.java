@@ -0,0 +1,5 @@
+package com.freelancer.POJO;
+
+// Snapshot of the user cache: how many lookups it answered and how many still went to the database
+public record UserCacheStats(long size, long hits, long misses, double hitRate, long evictions) {
+}
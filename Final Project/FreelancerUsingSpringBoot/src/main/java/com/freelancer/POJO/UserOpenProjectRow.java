@@ -0,0 +1,17 @@
+package com.freelancer.POJO;
+
+public record UserOpenProjectRow(long projectId, long employerId, String title, String budget, String period,
+                                 double averageBid, long bidCount) {
+
+    public ProjectDetail toProjectDetail() {
+        ProjectDetail projectDetail = new ProjectDetail();
+        projectDetail.setProjectId(projectId);
+        projectDetail.setEmployerId(employerId);
+        projectDetail.setProjectTitle(title);
+        projectDetail.setProjectBudget(budget);
+        projectDetail.setProjectPeriod(period);
+        projectDetail.setAverageBid(averageBid);
+        projectDetail.setBidCount(bidCount);
+        return projectDetail;
+    }
+}
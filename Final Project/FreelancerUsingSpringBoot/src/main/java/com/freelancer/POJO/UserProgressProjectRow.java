@@ -0,0 +1,20 @@
+package com.freelancer.POJO;
+
+public record UserProgressProjectRow(String freelancerName, long projectId, long employerId, long freelancerId,
+                                     String title, String endDate, String bidAmount, double averageBid,
+                                     long bidCount) {
+
+    public ProjectDetail toProjectDetail() {
+        ProjectDetail projectDetail = new ProjectDetail();
+        projectDetail.setFreelancerName(freelancerName);
+        projectDetail.setProjectId(projectId);
+        projectDetail.setEmployerId(employerId);
+        projectDetail.setFreelancerId(freelancerId);
+        projectDetail.setProjectTitle(title);
+        projectDetail.setEndDate(endDate);
+        projectDetail.setBidAmount(bidAmount);
+        projectDetail.setAverageBid(averageBid);
+        projectDetail.setBidCount(bidCount);
+        return projectDetail;
+    }
+}
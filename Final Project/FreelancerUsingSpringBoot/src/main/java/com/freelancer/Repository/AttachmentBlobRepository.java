@@ -0,0 +1,31 @@
+package com.freelancer.Repository;
+
+import com.freelancer.Entity.AttachmentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface AttachmentBlobRepository extends JpaRepository<AttachmentBlob, String> {
+
+    // Single-statement upsert, so two uploads of the same content both count
+    @Transactional
+    @Modifying
+    @Query(value = "insert into attachment_blobs (sha256,size,content_type,ref_count) values (:sha256,:size,:contentType,1) " +
+            "on duplicate key update ref_count=ref_count+1", nativeQuery = true)
+    int acquire(@Param("sha256") String sha256, @Param("size") long size, @Param("contentType") String contentType);
+
+    @Transactional
+    @Modifying
+    @Query("update AttachmentBlob b set b.refCount = b.refCount - 1 where b.sha256 = :sha256 and b.refCount > 0")
+    int release(@Param("sha256") String sha256);
+
+    // Only removes the row if nothing acquired it again in between
+    @Transactional
+    @Modifying
+    @Query("delete from AttachmentBlob b where b.sha256 = :sha256 and b.refCount = 0")
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+}
@@ -1,15 +1,51 @@
 package com.freelancer.Repository;
 
 import com.freelancer.Entity.Bid;
+import com.freelancer.POJO.BidAmount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface BidRepository extends JpaRepository<Bid, Long> {
 //    List<Bid> findByProjectIdAndUserId(Long project_id,Long user_id);
     List<Bid> findByProjectId(Long project_id);
     List<Bid> findByUserId(long userId);
+    List<Bid> findByProjectIdIn(Collection<Long> projectIds);
+
+    // Served by idx_bid_project_amount; ties go to the earliest bid. MySQL sorts NULL first, so unpriced bids are
+    // filtered out rather than picked as the lowest
+    Bid findFirstByProjectIdAndUserIdAndAmountMinorIsNotNullOrderByAmountMinorAscIdAsc(Long projectId, Long userId);
+
+    // One statement for every bid of the project; a null winningBidId rejects them all
+    @Modifying
+    @Query("update Bid b set b.bid_status = case when b.id = :winningBidId then 'BID_ACCEPTED' else 'BID_REJECTED' end " +
+            "where b.projectId = :projectId")
+    int awardBids(@Param("projectId") Long projectId, @Param("winningBidId") Long winningBidId);
+
+    // Bids from before amount_minor existed, walked by id so rows that stay null are not read again
+    @Query("select new com.freelancer.POJO.BidAmount(b.id, b.bid_amount) from Bid b"
+            + " where b.amountMinor is null and b.id > :afterId order by b.id")
+    List<BidAmount> findWithoutAmountMinor(@Param("afterId") Long afterId, Pageable page);
+
+    @Modifying
+    @Query("update Bid b set b.amountMinor = :amountMinor, b.currency = coalesce(b.currency, 'USD')"
+            + " where b.id = :id and b.amountMinor is null")
+    int setAmountMinor(@Param("id") Long id, @Param("amountMinor") Long amountMinor);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select b from Bid b")
+    Stream<Bid> streamAll();
 
 }
@@ -0,0 +1,38 @@
+package com.freelancer.Repository;
+
+import com.freelancer.Entity.ProjectBidStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProjectBidStatsRepository extends JpaRepository<ProjectBidStats, Long> {
+
+    // Single-statement upsert so concurrent bids on the same project cannot lose updates
+    @Modifying
+    @Query(value = "insert into project_bid_stats (project_id,bid_count,bid_sum,min_bid,max_bid,pending_count,pending_sum) " +
+            "values (:projectId,:count,:sum,:min,:max,:pendingCount,:pendingSum) on duplicate key update " +
+            "bid_count=bid_count+:count, bid_sum=bid_sum+:sum, min_bid=least(coalesce(min_bid,:min),:min), " +
+            "max_bid=greatest(coalesce(max_bid,:max),:max), pending_count=pending_count+:pendingCount, " +
+            "pending_sum=pending_sum+:pendingSum", nativeQuery = true)
+    int addBids(@Param("projectId") long projectId, @Param("count") long count, @Param("sum") double sum,
+                @Param("min") double min, @Param("max") double max, @Param("pendingCount") long pendingCount,
+                @Param("pendingSum") double pendingSum);
+
+    @Modifying
+    @Query(value = "update project_bid_stats set pending_count=:pendingCount, pending_sum=:pendingSum " +
+            "where project_id=:projectId", nativeQuery = true)
+    int setPending(@Param("projectId") long projectId, @Param("pendingCount") long pendingCount,
+                   @Param("pendingSum") double pendingSum);
+
+    // Only priced bids count, as in recordBids: a legacy amount the backfill could not parse would otherwise add to
+    // bid_count but not bid_sum and drag every average down
+    @Modifying
+    @Query(value = "insert into project_bid_stats (project_id,bid_count,bid_sum,min_bid,max_bid,pending_count,pending_sum) " +
+            "select project_id, count(*), sum(amount_minor)/100, min(amount_minor)/100, max(amount_minor)/100, " +
+            "sum(bid_status='BID_SENT'), sum(case when bid_status='BID_SENT' then amount_minor else 0 end)/100 " +
+            "from bid where amount_minor is not null group by project_id", nativeQuery = true)
+    int rebuildFromBids();
+}
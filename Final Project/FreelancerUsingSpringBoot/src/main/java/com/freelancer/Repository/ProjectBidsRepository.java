@@ -0,0 +1,62 @@
+package com.freelancer.Repository;
+
+import com.freelancer.Award.AwardTerms;
+import com.freelancer.Award.ProjectBids;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Reads a project's bids straight into primitive columns for award
+ * strategies, without materializing a Bid entity per row.
+ */
+@Repository
+public class ProjectBidsRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Bids without an amount_minor (an amount the backfill could not parse) cannot be compared, so never win
+    public ProjectBids findByProjectId(long projectId, int expectedSize) {
+        Columns columns = new Columns(Math.max(expectedSize, 16));
+        jdbcTemplate.query("select id,user_id,amount_minor,bid_period from bid where project_id=? " +
+                        "and amount_minor is not null order by id", columns, projectId);
+        return new ProjectBids(columns.bidIds, columns.userIds, columns.amountMinor, columns.periodDays, columns.size);
+    }
+
+    private static class Columns implements RowCallbackHandler {
+        private long[] bidIds;
+        private long[] userIds;
+        private long[] amountMinor;
+        private int[] periodDays;
+        private int size;
+
+        private Columns(int capacity) {
+            bidIds = new long[capacity];
+            userIds = new long[capacity];
+            amountMinor = new long[capacity];
+            periodDays = new int[capacity];
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (size == bidIds.length) {
+                int capacity = size * 2;
+                bidIds = Arrays.copyOf(bidIds, capacity);
+                userIds = Arrays.copyOf(userIds, capacity);
+                amountMinor = Arrays.copyOf(amountMinor, capacity);
+                periodDays = Arrays.copyOf(periodDays, capacity);
+            }
+            bidIds[size] = rs.getLong(1);
+            userIds[size] = rs.getLong(2);
+            amountMinor[size] = rs.getLong(3);
+            periodDays[size] = AwardTerms.parseDays(rs.getString(4));
+            size++;
+        }
+    }
+}
@@ -3,10 +3,59 @@ import java.util.List;
 import java.util.ArrayList;
 
 import com.freelancer.Entity.Project;
+import com.freelancer.POJO.ProjectDeadline;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
      List<Project> findByEmployerId(Long employerId);
+
+     @Modifying
+     @Query(value = "update project set date_posted=now() where date_posted is null", nativeQuery = true)
+     int backfillDatePosted();
+
+     @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+     @Query("select p from Project p")
+     Stream<Project> streamAll();
+
+     // Claims due projects over idx_project_status_deadline with FOR UPDATE SKIP LOCKED (lock timeout -2),
+     // so concurrent closers on any node each get a disjoint batch
+     @Lock(LockModeType.PESSIMISTIC_WRITE)
+     @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+     @Query("select p from Project p where p.status = 'OPEN' and p.bidDeadline <= :now and p.id not in :skip"
+             + " order by p.bidDeadline, p.id")
+     List<Project> claimDue(@Param("now") LocalDateTime now, @Param("skip") Collection<Long> skip, Pageable page);
+
+     @Lock(LockModeType.PESSIMISTIC_WRITE)
+     @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+     @Query("select p from Project p where p.id = :id and p.status = 'OPEN' and p.bidDeadline <= :now")
+     Project claimDueById(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+     // The closers' lock without the deadline condition, for hiring before the deadline
+     @Lock(LockModeType.PESSIMISTIC_WRITE)
+     @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+     @Query("select p from Project p where p.id = :id and p.status = 'OPEN'")
+     Project claimOpenById(@Param("id") Long id);
+
+     @Query("select count(p) from Project p where p.status = 'OPEN' and p.bidDeadline <= :now")
+     long countDue(@Param("now") LocalDateTime now);
+
+     @Query("select new com.freelancer.POJO.ProjectDeadline(p.id, p.bidDeadline) from Project p"
+             + " where p.status = 'OPEN' and p.bidDeadline <= :until")
+     List<ProjectDeadline> findDeadlinesUntil(@Param("until") LocalDateTime until);
 }
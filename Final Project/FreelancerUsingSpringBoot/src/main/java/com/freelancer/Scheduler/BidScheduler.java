@@ -1,19 +1,43 @@
 package com.freelancer.Scheduler;
 
 import com.freelancer.Entity.Project;
-import com.freelancer.Entity.Bid;
+import com.freelancer.POJO.AwardResult;
+import com.freelancer.POJO.JobRun;
+import com.freelancer.Service.AwardService;
 import com.freelancer.Service.ProjectService;
 import com.freelancer.Service.BidService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
-
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closes projects whose bid deadline has passed. Work is claimed in batches
+ * with SELECT ... FOR UPDATE SKIP LOCKED and each batch is closed in the
+ * transaction that claimed it, so any number of workers on any number of
+ * nodes can run at once: a project is locked by exactly one closer, and once
+ * that commits it is no longer OPEN.
+ */
 @Component
 public class BidScheduler {
 
@@ -25,56 +49,174 @@ public class BidScheduler {
     @Autowired
     private BidService bidService;
 
-    // 🔁 Run every 10 seconds for testing
-    @Scheduled(fixedRate = 10 * 1000)
+    @Autowired
+    private AwardService awardService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${freelancer.scheduler.close.batch-size:20}")
+    private int batchSize;
+    @Value("${freelancer.scheduler.close.workers:4}")
+    private int workers;
+    // Caps one run; anything left over is reported as backlog and picked up by the next run
+    @Value("${freelancer.scheduler.close.max-per-run:2000}")
+    private int maxPerRun;
+
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService closers;
+    private volatile JobRun lastRun;
+    private Timer runTimer;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadCount = new AtomicInteger();
+        closers = Executors.newFixedThreadPool(workers, r -> new Thread(r, "bid-closer-" + threadCount.incrementAndGet()));
+        runTimer = Timer.builder("freelancer.scheduler.close.run")
+                .description("Duration of one deadline sweep")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("freelancer.scheduler.close.backlog", this, s -> s.lastRun != null ? s.lastRun.backlog() : 0)
+                .description("Projects still due after the last sweep")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closers.shutdownNow();
+    }
+
+    // 🔁 Safety-net sweep; DeadlineTimer closes projects at their deadline, this catches anything it missed
+    @Scheduled(fixedRateString = "${freelancer.scheduler.close.sweep-ms:60000}")
     public void closeExpiredBids() {
-        logger.info("Running scheduled bid closing job...");
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        AtomicInteger processed = new AtomicInteger();
+        // Projects that failed to close this run; they stay OPEN and are retried next run
+        Set<Long> failed = ConcurrentHashMap.newKeySet();
 
         try {
-            List<Project> projects = (List<Project>) projectService.getAllProjects();
-
-            for (Project project : projects) {
-                // ✅ skip if no deadline or already closed
-                if (project.getBidDeadline() == null || !"OPEN".equalsIgnoreCase(project.getStatus()))
-                    continue;
-
-                // ✅ if current time is after deadline → close it
-                if (LocalDateTime.now().isAfter(project.getBidDeadline())) {
-                    logger.info("Closing project: {}", project.getTitle());
-
-                    List<Bid> bids = bidService.findByProjectId(project.getId());
-
-                    if (!bids.isEmpty()) {
-                        // ✅ choose best (lowest) bid
-                        Bid bestBid = bids.stream()
-                                .min(Comparator.comparingDouble(b ->
-                                        Double.parseDouble(b.getBid_amount().replaceAll("[^0-9.]", "")))
-                                ).orElse(null);
-
-                        if (bestBid != null) {
-                            logger.info("Awarding project {} to freelancer {}", project.getId(), bestBid.getUserId());
-                            project.setFreelancerId(bestBid.getUserId());
-                            project.setStatus("CLOSED");
-                            projectService.save(project);
-
-                            // Update bid statuses
-                            for (Bid bid : bids) {
-                                bid.setBid_status(bid.equals(bestBid) ? "BID_ACCEPTED" : "BID_REJECTED");
-                                bidService.save(bid);
-                            }
-                        }
-                    } else {
-                        logger.info("No bids found for project {}", project.getId());
-                        project.setStatus("CLOSED_NO_BIDS");
-                        projectService.save(project);
+            List<Callable<Void>> tasks = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                tasks.add(() -> {
+                    while (processed.get() < maxPerRun && closeBatch(startedAt, processed, failed)) {
+                        // keep claiming until nothing is due or the run is full
                     }
-                }
+                    return null;
+                });
             }
-
+            closers.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.error("Error during bid closing job: {}", e.getMessage());
         }
 
-        logger.info("Bid closing job completed.");
+        long backlog = projectService.countDueProjects(startedAt);
+        long elapsed = System.nanoTime() - start;
+        runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        lastRun = new JobRun(startedAt, elapsed / 1_000_000, processed.get(), backlog);
+        if (processed.get() > 0 || backlog > 0) {
+            logger.info("Bid closing job processed {} projects in {} ms, {} still due", processed.get(), lastRun.durationMs(), backlog);
+        }
+    }
+
+    public JobRun getLastRun() {
+        return lastRun;
+    }
+
+    // Used by DeadlineTimer; skips the project if it is no longer due or another closer already holds it
+    public boolean closeIfDue(long projectId) {
+        String closed = transactionTemplate.execute(status -> {
+            Project project = projectService.claimDueProject(projectId, LocalDateTime.now());
+            return project != null ? closeProject(project) : null;
+        });
+        if (closed == null) {
+            return false;
+        }
+        countClosed(closed);
+        return true;
+    }
+
+    // Returns false once there is nothing left to claim
+    private boolean closeBatch(LocalDateTime now, AtomicInteger processed, Set<Long> failed) {
+        Long[] current = new Long[1];
+        List<Long> claimedIds = new ArrayList<>();
+        try {
+            List<String> closed = transactionTemplate.execute(status -> {
+                List<Project> claimed = projectService.claimDueProjects(now, batchSize, failed);
+                List<String> statuses = new ArrayList<>(claimed.size());
+                for (Project project : claimed) {
+                    claimedIds.add(project.getId());
+                    current[0] = project.getId();
+                    statuses.add(closeProject(project));
+                    current[0] = null;
+                }
+                return statuses;
+            });
+            for (String status : closed) {
+                countClosed(status);
+            }
+            processed.addAndGet(closed.size());
+            return !closed.isEmpty();
+        } catch (Exception e) {
+            if (current[0] != null) {
+                // The whole batch rolled back; leave the failing project out and let the rest be claimed again
+                logger.error("Error closing project {}: {}", current[0], e.getMessage());
+                failed.add(current[0]);
+                return true;
+            }
+            if (claimedIds.isEmpty()) {
+                logger.error("Error claiming due projects: {}", e.getMessage());
+                return false;
+            }
+            // Every project closed but the commit failed, so no single project is to blame: close them one at a
+            // time and set aside only those that fail on their own
+            logger.warn("Closing batch of {} projects failed to commit, retrying one by one: {}", claimedIds.size(), e.getMessage());
+            for (Long projectId : claimedIds) {
+                try {
+                    if (closeIfDue(projectId)) {
+                        processed.incrementAndGet();
+                    }
+                } catch (Exception retryError) {
+                    logger.error("Error closing project {}: {}", projectId, retryError.getMessage());
+                    failed.add(projectId);
+                }
+            }
+            return true;
+        }
+    }
+
+    // Counted only once the closing transaction has committed
+    private void countClosed(String status) {
+        meterRegistry.counter("freelancer.projects.closed", "status", status).increment();
+    }
+
+    // Returns the status the project was closed with
+    private String closeProject(Project project) {
+        logger.info("Closing project: {}", project.getTitle());
+
+        // ✅ winner chosen by the project's award strategy (lowest price unless it picked another)
+        AwardResult result = awardService.pickWinner(project);
+
+        if (result.hasWinner()) {
+            logger.info("Awarding project {} to freelancer {}", project.getId(), result.winnerUserId());
+            project.setFreelancerId(result.winnerUserId());
+            project.setStatus("CLOSED");
+            bidService.awardProject(project, result.winningBidId());
+        } else if (result.bidCount() > 0) {
+            logger.info("No bid qualified under {} for project {}", project.getAwardStrategy(), project.getId());
+            project.setStatus("CLOSED_NO_AWARD");
+            bidService.awardProject(project, null);
+        } else {
+            logger.info("No bids found for project {}", project.getId());
+            project.setStatus("CLOSED_NO_BIDS");
+            projectService.save(project);
+        }
+        return project.getStatus();
     }
 }
@@ -0,0 +1,146 @@
+package com.freelancer.Scheduler;
+
+import com.freelancer.Entity.Project;
+import com.freelancer.POJO.ProjectDeadline;
+import com.freelancer.Service.ProjectService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes projects at their bid deadline instead of on the next sweep. Only
+ * deadlines inside a rolling horizon are held in memory: they are loaded at
+ * startup, topped up periodically and added as projects are posted. A single
+ * thread blocks on the queue until the earliest deadline, so an idle timer
+ * costs no database queries. BidScheduler's sweep stays as the safety net.
+ */
+@Component
+public class DeadlineTimer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineTimer.class);
+
+    @Autowired
+    private ProjectService projectService;
+    @Autowired
+    private BidScheduler bidScheduler;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${freelancer.scheduler.timer.horizon-ms:3600000}")
+    private long horizonMs;
+
+    private final DelayQueue<Deadline> queue = new DelayQueue<>();
+    // Latest deadline queued per project, so refills and re-posts do not queue duplicates
+    private final Map<Long, LocalDateTime> scheduled = new ConcurrentHashMap<>();
+    private Thread worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Gauge.builder("freelancer.scheduler.timer.pending", this, DeadlineTimer::size)
+                .description("Deadlines held in memory by the timer")
+                .register(meterRegistry);
+        refill();
+        worker = new Thread(this::run, "deadline-timer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public void schedule(Project project) {
+        if (project.getId() == null || project.getBidDeadline() == null || !"OPEN".equalsIgnoreCase(project.getStatus())) {
+            return;
+        }
+        if (project.getBidDeadline().isAfter(LocalDateTime.now().plus(Duration.ofMillis(horizonMs)))) {
+            return; // picked up by a later refill
+        }
+        schedule(project.getId(), project.getBidDeadline());
+    }
+
+    public int size() {
+        return scheduled.size();
+    }
+
+    // Runs at half the horizon so every deadline is queued well before it is due
+    @Scheduled(initialDelayString = "${freelancer.scheduler.timer.horizon-ms:3600000}",
+            fixedRateString = "#{${freelancer.scheduler.timer.horizon-ms:3600000} / 2}")
+    public void refill() {
+        LocalDateTime until = LocalDateTime.now().plus(Duration.ofMillis(horizonMs));
+        int added = 0;
+        for (ProjectDeadline deadline : projectService.findOpenDeadlinesUntil(until)) {
+            if (schedule(deadline.projectId(), deadline.bidDeadline())) {
+                added++;
+            }
+        }
+        logger.info("Deadline timer holds {} projects ({} added, horizon {} ms)", scheduled.size(), added, horizonMs);
+    }
+
+    private boolean schedule(long projectId, LocalDateTime deadline) {
+        if (deadline.equals(scheduled.put(projectId, deadline))) {
+            return false;
+        }
+        queue.put(new Deadline(projectId, deadline));
+        return true;
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Deadline next;
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            // A newer deadline for the same project supersedes this entry
+            if (!scheduled.remove(next.projectId, next.deadline)) {
+                continue;
+            }
+            try {
+                bidScheduler.closeIfDue(next.projectId);
+            } catch (Exception e) {
+                logger.error("Error closing project {} at deadline: {}", next.projectId, e.getMessage());
+            }
+        }
+    }
+
+    private static class Deadline implements Delayed {
+        private final long projectId;
+        private final LocalDateTime deadline;
+
+        private Deadline(long projectId, LocalDateTime deadline) {
+            this.projectId = projectId;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(LocalDateTime.now(), deadline));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return deadline.compareTo(((Deadline) other).deadline);
+        }
+    }
+}
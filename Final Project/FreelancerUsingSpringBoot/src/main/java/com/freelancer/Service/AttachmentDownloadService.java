@@ -0,0 +1,244 @@
+package com.freelancer.Service;
+
+import com.freelancer.Entity.Attachments;
+import com.freelancer.POJO.ImageVariant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves attachment bytes straight from disk. On Tomcat the file is handed
+ * to the connector's sendfile, so the kernel copies it to the socket and the
+ * request thread is released before the transfer; elsewhere it goes through
+ * FileChannel.transferTo. Either way nothing proportional to the file is
+ * held in the heap.
+ * <p>
+ * Blob store files are addressed by their SHA-256, so the hash is a strong
+ * ETag and the response can be cached as immutable. Single byte ranges are
+ * honoured; a request for several ranges gets the whole file, which HTTP
+ * allows. Images asked for at a size are answered with the thumbnail from
+ * ImageDerivativeService, or with the original, revalidated on every use,
+ * until the thumbnail has been made.
+ */
+@Service
+public class AttachmentDownloadService {
+
+    // Where attachments uploaded before the blob store were written, searched in order by their link
+    @Value("${freelancer.uploads.legacy-dirs:../react-client/src/images,../react-client/src/files}")
+    private String[] legacyDirs;
+    @Value("${freelancer.downloads.cache-max-age-s:31536000}")
+    private long cacheMaxAge;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentDownloadService.class);
+
+    // Request attributes of Tomcat's sendfile support; see org.apache.coyote.Constants
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Below this a plain write is cheaper than setting up sendfile, as in Tomcat's DefaultServlet
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+    // Content types are declared by the uploader, so only raster formats that cannot carry script are shown inline
+    private static final Set<String> INLINE_TYPES = Set.of("image/png", "image/jpeg", "image/gif", "image/webp");
+
+    private Counter sendfileResponses;
+    private Counter channelResponses;
+    private Counter notModifiedResponses;
+
+    @PostConstruct
+    public void init() {
+        sendfileResponses = Counter.builder("freelancer.downloads").tag("transfer", "sendfile").register(meterRegistry);
+        channelResponses = Counter.builder("freelancer.downloads").tag("transfer", "channel").register(meterRegistry);
+        notModifiedResponses = Counter.builder("freelancer.downloads").tag("transfer", "not-modified").register(meterRegistry);
+    }
+
+    /**
+     * Writes the attachment, or the requested part of it, to the response;
+     * size, when given, asks for an image thumbnail. Answers 404 when the file
+     * is missing and 416 for a range outside it.
+     */
+    public void send(Attachments attachments, Integer size, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String contentType = attachments.getContentType() != null ? attachments.getContentType()
+                : FileStorageService.contentType(null, attachments.getLink());
+        boolean thumbnail = size != null && attachments.getSha256() != null && contentType.startsWith("image/");
+        ImageVariant variant = thumbnail
+                ? imageDerivativeService.variant(attachments.getSha256(), imageDerivativeService.sizeFor(size)) : null;
+        Path file = variant != null ? variant.path() : locate(attachments);
+        if (file == null || !Files.isRegularFile(file)) {
+            logger.warn("Attachment {} has no file ({})", attachments.getId(), attachments.getLink());
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        long length = Files.size(file);
+        String etag = null;
+        if (variant != null) {
+            etag = "\"" + variant.sha256() + "-" + variant.size() + "\"";
+            contentType = variant.contentType();
+        } else if (attachments.getSha256() != null) {
+            etag = "\"" + attachments.getSha256() + "\"";
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        // Should a browser render the file anyway, it gets no script, no subresources and a unique origin
+        response.setHeader("Content-Security-Policy", "default-src 'none'; sandbox");
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (thumbnail && variant == null) {
+                // The original stands in for a thumbnail that is still being made; check back next time
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            } else {
+                // The content of an attachment never changes, whichever URL it is fetched under
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + cacheMaxAge + ", immutable");
+            }
+            if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                notModifiedResponses.increment();
+                response.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return;
+            }
+        } else {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, Files.getLastModifiedTime(file).toMillis());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + TimeUnit.DAYS.toSeconds(1));
+        }
+        response.setContentType(contentType);
+        // Anything else, SVG and HTML included, is offered as a download
+        ContentDisposition.Builder disposition = shownInline(contentType) ? ContentDisposition.inline() : ContentDisposition.attachment();
+        String link = attachments.getLink();
+        if (StandardCharsets.US_ASCII.newEncoder().canEncode(link)) {
+            disposition.filename(link);
+        } else {
+            disposition.filename(link, StandardCharsets.UTF_8);
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.build().toString());
+
+        long start = 0;
+        long end = length;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && length > 0 && ifRangeHolds(request.getHeader(HttpHeaders.IF_RANGE), etag)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                HttpRange requested = ranges.get(0);
+                try {
+                    start = requested.getRangeStart(length);
+                    end = requested.getRangeEnd(length) + 1;
+                    if (start >= length || end <= start) {
+                        throw new IllegalArgumentException("Range " + range + " is outside " + length + " bytes");
+                    }
+                } catch (IllegalArgumentException e) {
+                    response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod()) || end == start) {
+            return;
+        }
+
+        if (end - start >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat insists on the canonical path
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            sendfileResponses.increment();
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+        channelResponses.increment();
+    }
+
+    private Path locate(Attachments attachments) {
+        if (attachments.getSha256() != null) {
+            return fileStorageService.blobPath(attachments.getSha256());
+        }
+        // Links are stored file names; never let one reach outside the directories
+        String name = StringUtils.getFilename(StringUtils.cleanPath(attachments.getLink()));
+        for (String dir : legacyDirs) {
+            Path candidate = Paths.get(dir.trim()).resolve(name);
+            if (Files.isRegularFile(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // If-None-Match uses the weak comparison, so W/ prefixes are ignored
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A Range only applies when If-Range is absent or strongly matches; dates are not trusted for ranges
+    private static boolean ifRangeHolds(String ifRange, String etag) {
+        return ifRange == null || (etag != null && ifRange.trim().equals(etag));
+    }
+
+    private static boolean shownInline(String contentType) {
+        try {
+            MediaType type = MediaType.parseMediaType(contentType);
+            return INLINE_TYPES.contains(type.getType() + "/" + type.getSubtype());
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+}
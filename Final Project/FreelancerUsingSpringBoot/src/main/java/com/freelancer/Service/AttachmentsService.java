@@ -1,34 +1,79 @@
 package com.freelancer.Service;
 
 import com.freelancer.Entity.Attachments;
+import com.freelancer.POJO.StoredFile;
 import com.freelancer.Repository.AttachmentsRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
 
 @Service
 public class AttachmentsService {
 
     @Autowired
     private AttachmentsRepository attachmentsRepository;
+    @Autowired
+    private FileStorageService fileStorageService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Value("${freelancer.attachments.cache.max-size:10000}")
+    private long cacheMaxSize;
     private static final Logger logger = LoggerFactory.getLogger(AttachmentsService.class);
 
+    // Rows are written once and only ever deleted, so downloads and lookups can skip the database
+    private Cache<Long, Attachments> attachmentsById;
+
+    @PostConstruct
+    public void init() {
+        attachmentsById = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, attachmentsById, "attachments");
+    }
+
+    // Shared cached instance for read-only use
     public Attachments findById(long id) {
-        Optional<Attachments> exist = attachmentsRepository.findById(id);
-        if(exist.isPresent()){
-            return exist.get();
-        }else{
-            return null;
-        }
+        return attachmentsById.get(id, key -> attachmentsRepository.findById(key).orElse(null));
     }
 
     public Attachments save(Attachments attachments) {
     Attachments att = attachmentsRepository.save(attachments);
+    attachmentsById.invalidate(att.getId());
     return att;
 
     }
+
+    // Row for a file already counted in the blob store; the reference is given back if the row cannot be saved
+    public Attachments create(StoredFile stored) throws IOException {
+        try {
+            return attachmentsRepository.save(new Attachments(stored.fileName(), stored.sha256(), stored.size(), stored.contentType()));
+        } catch (RuntimeException e) {
+            fileStorageService.release(stored.sha256());
+            throw e;
+        }
+    }
+
+    // Removes an attachment nothing points at any more, such as a replaced profile image, and releases its blob
+    public void delete(long id) throws IOException {
+        Attachments attachments = findById(id);
+        if (attachments == null || attachments.getSha256() == null) {
+            // Files from before the blob store are left where they are
+            return;
+        }
+        attachmentsRepository.delete(attachments);
+        attachmentsById.invalidate(id);
+        fileStorageService.release(attachments.getSha256());
+        logger.info("Deleted attachment {} ({})", id, attachments.getLink());
+    }
 }
 
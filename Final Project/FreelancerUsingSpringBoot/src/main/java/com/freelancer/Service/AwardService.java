@@ -0,0 +1,77 @@
+package com.freelancer.Service;
+
+import com.freelancer.Award.AwardStrategy;
+import com.freelancer.Award.AwardTerms;
+import com.freelancer.Award.LowestPriceStrategy;
+import com.freelancer.Award.ProjectBids;
+import com.freelancer.Entity.Project;
+import com.freelancer.Entity.ProjectBidStats;
+import com.freelancer.POJO.AwardResult;
+import com.freelancer.Repository.ProjectBidsRepository;
+import com.freelancer.Utility.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+@Service
+public class AwardService {
+
+    @Autowired
+    private ProjectBidsRepository projectBidsRepository;
+    @Autowired
+    private ProjectBidStatsService projectBidStatsService;
+
+    private final Map<String, AwardStrategy> strategies = new TreeMap<>();
+
+    @Autowired
+    public void setStrategies(List<AwardStrategy> available) {
+        for (AwardStrategy strategy : available) {
+            strategies.put(strategy.name(), strategy);
+        }
+    }
+
+    public boolean isKnown(String name) {
+        return strategies.containsKey(name);
+    }
+
+    public Set<String> strategyNames() {
+        return strategies.keySet();
+    }
+
+    // Runs the project's own strategy, or lowest price when it has none
+    public AwardResult pickWinner(Project project) {
+        AwardStrategy strategy = strategies.get(project.getAwardStrategy() != null
+                ? project.getAwardStrategy() : LowestPriceStrategy.NAME);
+        if (strategy == null) {
+            throw new IllegalStateException("Unknown award strategy " + project.getAwardStrategy());
+        }
+        ProjectBidStats stats = projectBidStatsService.findByProjectId(project.getId());
+        ProjectBids bids = projectBidsRepository.findByProjectId(project.getId(),
+                stats != null ? (int) stats.getBidCount() : 0);
+        int winner = bids.size() > 0 ? strategy.pickWinner(bids, termsOf(project)) : -1;
+        if (winner < 0) {
+            return new AwardResult(bids.size(), null, null);
+        }
+        return new AwardResult(bids.size(), bids.bidIds()[winner], bids.userIds()[winner]);
+    }
+
+    private static AwardTerms termsOf(Project project) {
+        return new AwardTerms(budgetCeiling(project.getRange()), AwardTerms.parseDays(project.getPeriod()), project.getReserveMinor());
+    }
+
+    // budget_range is entered as "100-200" or a single amount; the upper end is the ceiling
+    private static long budgetCeiling(String range) {
+        if (range == null) {
+            return 0;
+        }
+        try {
+            return Money.parseMinor(range.substring(range.lastIndexOf('-') + 1));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return 0;
+        }
+    }
+}
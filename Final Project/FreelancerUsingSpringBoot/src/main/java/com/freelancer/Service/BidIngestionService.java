@@ -0,0 +1,185 @@
+package com.freelancer.Service;
+
+import com.freelancer.Entity.Bid;
+import com.freelancer.exception.IdempotencyKeyReusedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind path for bids. Requests enqueue their bid on a
+ * bounded queue; a single writer drains it in batches and saves each batch
+ * in one transaction. A bid's future completes only after its batch has
+ * committed, so callers never acknowledge a bid that is not durable. When
+ * the queue is full the bid is rejected immediately. Bids submitted with an
+ * idempotency key share one future per bidder and key, so a client that timed
+ * out can retry and learn the outcome without bidding twice.
+ */
+@Service
+public class BidIngestionService {
+
+    @Autowired
+    private BidService bidService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${freelancer.bids.write-behind.enabled:false}")
+    private boolean enabled;
+    @Value("${freelancer.bids.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+    @Value("${freelancer.bids.write-behind.batch-size:100}")
+    private int batchSize;
+    @Value("${freelancer.bids.write-behind.idempotency-ttl-ms:600000}")
+    private long idempotencyTtlMs;
+
+    private static final Logger logger = LoggerFactory.getLogger(BidIngestionService.class);
+
+    private BlockingQueue<PendingBid> queue;
+    // Keyed by bidder and idempotency key, so one user's key never resolves to another user's bid
+    private Cache<String, KeyedBid> byKey;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        byKey = Caffeine.newBuilder()
+                .expireAfterWrite(idempotencyTtlMs, TimeUnit.MILLISECONDS)
+                .maximumSize(queueCapacity * 10L)
+                .build();
+        Gauge.builder("freelancer.bids.ingestion.queue", queue, BlockingQueue::size)
+                .description("Bids waiting for the writer thread")
+                .register(meterRegistry);
+        running = true;
+        writer = new Thread(this::drainLoop, "bid-writer");
+        writer.start();
+        logger.info("Write-behind bid ingestion enabled (capacity {}, batch {})", queueCapacity, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Bid> submit(Bid bid) {
+        PendingBid pending = new PendingBid(bid);
+        if (!running || !queue.offer(pending)) {
+            throw new RejectedExecutionException("Bid queue is full");
+        }
+        return pending.result;
+    }
+
+    /**
+     * A repeated key from the same bidder returns the first submission's
+     * future instead of queueing the bid again, provided requestHash matches
+     * the first request; a different request under the same key is refused
+     * with IdempotencyKeyReusedException. Only outcomes worth repeating are
+     * remembered: a rejected submission or a failed write is forgotten, so
+     * retrying it is a fresh attempt.
+     */
+    public CompletableFuture<Bid> submit(Bid bid, String idempotencyKey, String requestHash) {
+        String cacheKey = bid.getUserId() + ":" + idempotencyKey;
+        KeyedBid keyed = byKey.asMap().computeIfAbsent(cacheKey, key -> new KeyedBid(requestHash, submit(bid)));
+        if (!keyed.requestHash.equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        keyed.result.whenComplete((saved, e) -> {
+            if (e != null) {
+                byKey.asMap().remove(cacheKey, keyed);
+            }
+        });
+        return keyed.result;
+    }
+
+    private void drainLoop() {
+        List<PendingBid> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingBid first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                // Shutdown: fall through and flush whatever is still queued
+                queue.drainTo(batch, batchSize);
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingBid> batch) {
+        List<Bid> bids = new ArrayList<>(batch.size());
+        for (PendingBid pending : batch) {
+            bids.add(pending.bid);
+        }
+        try {
+            List<Bid> saved = bidService.placeBids(bids);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(saved.get(i));
+            }
+        } catch (Exception e) {
+            // Retry one by one so a single bad bid cannot fail the rest of the batch
+            logger.error("Bid batch of {} failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (PendingBid pending : batch) {
+                pending.bid.setId(null);
+                try {
+                    pending.result.complete(bidService.placeBid(pending.bid));
+                } catch (Exception single) {
+                    pending.result.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private static class KeyedBid {
+        private final String requestHash;
+        private final CompletableFuture<Bid> result;
+
+        private KeyedBid(String requestHash, CompletableFuture<Bid> result) {
+            this.requestHash = requestHash;
+            this.result = result;
+        }
+    }
+
+    private static class PendingBid {
+        private final Bid bid;
+        private final CompletableFuture<Bid> result = new CompletableFuture<>();
+
+        private PendingBid(Bid bid) {
+            this.bid = bid;
+        }
+    }
+}
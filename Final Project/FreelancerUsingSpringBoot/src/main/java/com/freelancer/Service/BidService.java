@@ -2,16 +2,34 @@ package com.freelancer.Service;
 
 import com.freelancer.Entity.Attachments;
 import com.freelancer.Entity.Bid;
+import com.freelancer.Entity.Project;
 import com.freelancer.Entity.User;
+import com.freelancer.POJO.BidAmount;
+import com.freelancer.POJO.BidsChanged;
+import com.freelancer.POJO.ProjectAwarded;
 import com.freelancer.Repository.AttachmentsRepository;
 import com.freelancer.Repository.BidRepository;
+import com.freelancer.Utility.Money;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 @Service
@@ -19,8 +37,18 @@ public class BidService{
 
     @Autowired
     private BidRepository bidRepository;
+    @Autowired
+    private ProjectBidStatsService projectBidStatsService;
+    @Autowired
+    private ProjectService projectService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     private static final Logger logger = LoggerFactory.getLogger(BidService.class);
 
+    private static final int BACKFILL_BATCH = 500;
+
     public Bid findById(long id) {
         Optional<Bid> exist = bidRepository.findById(id);
         if(exist.isPresent()){
@@ -39,15 +67,111 @@ public class BidService{
         return bidRepository.findAll();
     }
 
+    // Caller must hold a transaction and close the stream
+    public Stream<Bid> streamAllBids(){
+        return bidRepository.streamAll();
+    }
+
     public Bid save(Bid bid) {
         Bid b = bidRepository.save(bid);
         return b;
     }
 
+    @Transactional
+    public Bid placeBid(Bid bid) {
+        Bid b = bidRepository.save(bid);
+        projectBidStatsService.recordBid(b);
+        eventPublisher.publishEvent(new BidsChanged(Collections.singletonList(b)));
+        return b;
+    }
+
+    // Write-behind path: one transaction and one JDBC batch for many bids
+    @Transactional
+    public List<Bid> placeBids(List<Bid> bids) {
+        List<Bid> saved = bidRepository.saveAll(bids);
+        projectBidStatsService.recordBids(saved);
+        eventPublisher.publishEvent(new BidsChanged(saved));
+        return saved;
+    }
+
+    // Hiring and deadline closing: saves the caller's project changes, accepts the winning bid and rejects
+    // the rest with one bulk update, so the statement count does not grow with the number of bids. A project
+    // still marked OPEN is closed here, so the deadline closers never award it a second time
+    @Transactional
+    public Project awardProject(Project project, Long winningBidId) {
+        if ("OPEN".equalsIgnoreCase(project.getStatus())) {
+            project.setStatus(winningBidId != null ? "CLOSED" : "CLOSED_NO_AWARD");
+        }
+        Project saved = projectService.save(project);
+        bidRepository.awardBids(project.getId(), winningBidId);
+        projectBidStatsService.clearPending(project.getId());
+        eventPublisher.publishEvent(new ProjectAwarded(project.getId(), winningBidId));
+        return saved;
+    }
+
+
+    // Hiring before the deadline claims the row under the same lock and OPEN condition as the deadline closers,
+    // so exactly one of them awards the project. Null if it is no longer open or a closer is closing it right now
+    @Transactional
+    public Project hireFreelancer(long projectId, long freelancerId, String endDate) {
+        Project project = projectService.claimOpenProject(projectId);
+        if (project == null) {
+            return null;
+        }
+        project.setEndDate(endDate);
+        project.setFreelancerId(freelancerId);
+        Bid hiredBid = findLowestBid(projectId, freelancerId);
+        return awardProject(project, hiredBid != null ? hiredBid.getId() : null);
+    }
 
     public List<Bid> findByProjectId(long id){
         return bidRepository.findByProjectId(id);
     }
 
+    public Bid findLowestBid(long projectId, long userId){
+        return bidRepository.findFirstByProjectIdAndUserIdAndAmountMinorIsNotNullOrderByAmountMinorAscIdAsc(projectId, userId);
+    }
+
+    // Bids written before amount_minor existed only carry the display string; runs before the stats rebuild.
+    // Parsed with Money.parseMinor, as new bids are, one transaction per batch. A row that cannot be parsed is
+    // logged and left null, and a failure stops the backfill without stopping startup
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void backfillAmountMinor(){
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+        int filled = 0;
+        int skipped = 0;
+        try {
+            while (true) {
+                List<BidAmount> batch = bidRepository.findWithoutAmountMinor(afterId, PageRequest.of(0, BACKFILL_BATCH));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Map<Long, Long> amounts = new LinkedHashMap<>();
+                for (BidAmount bid : batch) {
+                    try {
+                        amounts.put(bid.bidId(), Money.parseMinor(bid.amount()));
+                    } catch (RuntimeException e) {
+                        logger.warn("Bid {} has unparsable amount '{}', leaving amount_minor empty", bid.bidId(), bid.amount());
+                        skipped++;
+                    }
+                }
+                transactionTemplate.executeWithoutResult(status -> amounts.forEach(bidRepository::setAmountMinor));
+                filled += amounts.size();
+                afterId = batch.get(batch.size() - 1).bidId();
+            }
+        } catch (RuntimeException e) {
+            logger.error("amount_minor backfill stopped after bid {}: {}", afterId, e.getMessage());
+        }
+        if (filled > 0 || skipped > 0) {
+            logger.info("Backfilled amount_minor for {} bids, skipped {}", filled, skipped);
+        }
+    }
+
+    public List<Bid> findByProjectIds(Collection<Long> projectIds){
+        return bidRepository.findByProjectIdIn(projectIds);
+    }
+
 }
 
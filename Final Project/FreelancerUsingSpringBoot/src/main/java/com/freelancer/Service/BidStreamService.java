@@ -0,0 +1,364 @@
+package com.freelancer.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freelancer.Entity.Bid;
+import com.freelancer.Entity.ProjectBidStats;
+import com.freelancer.POJO.BidDetail;
+import com.freelancer.POJO.BidStreamEvent;
+import com.freelancer.POJO.BidsChanged;
+import com.freelancer.POJO.ProjectAwarded;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fan-out hub for live bid updates. Each subscriber is an SseEmitter parked
+ * on an async servlet request, so an idle subscriber costs a map entry and
+ * an open socket, not a thread. Changes are hydrated and serialized once per
+ * project, after the transaction that made them has committed, and the same
+ * pre-rendered frame is then written to every subscriber of that project in a
+ * single write, rather than the three flushed writes SseEventBuilder produces.
+ * Updates waiting to be published are merged per project, so a burst costs one
+ * publish rather than a queue of them. Writes go through a small outbox per
+ * subscriber on a bounded writer pool; a subscriber whose outbox fills up, or
+ * whose write has been stuck for write-timeout-ms, is dropped and reconnects,
+ * so one stalled client cannot hold up everyone else's stream.
+ * Each node holds at most max-subscribers streams; past that subscribe is
+ * refused so the open sockets stay within what the connector can carry.
+ */
+@Service
+public class BidStreamService {
+
+    @Autowired
+    private HydrationService hydrationService;
+    @Autowired
+    private BidService bidService;
+    @Autowired
+    private ProjectBidStatsService projectBidStatsService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${freelancer.bids.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+    @Value("${freelancer.bids.stream.max-subscribers:8000}")
+    private int maxSubscribers;
+    @Value("${freelancer.bids.stream.writer-threads:8}")
+    private int writerThreads;
+    @Value("${freelancer.bids.stream.outbox-frames:32}")
+    private int outboxFrames;
+    @Value("${freelancer.bids.stream.write-timeout-ms:10000}")
+    private long writeTimeoutMs;
+
+    private static final Logger logger = LoggerFactory.getLogger(BidStreamService.class);
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    // Changed bids not yet published, by project then bid id, and projects to publish in full after an award
+    private final Map<Long, Map<Long, Bid>> pending = new ConcurrentHashMap<>();
+    private final Set<Long> pendingAwards = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // One flush queued at a time: everything that arrives meanwhile is merged into it
+    private final ExecutorService dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), daemon("bid-stream"));
+    private ExecutorService writers;
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        // A subscriber has at most one drain queued or running, so the queue never holds more than the streams
+        writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(maxSubscribers, 1)), daemon("bid-stream-writer"));
+        Gauge.builder("freelancer.bids.stream.subscribers", open, AtomicInteger::get)
+                .description("Open live bid streams")
+                .register(meterRegistry);
+        dropped = Counter.builder("freelancer.bids.stream.dropped")
+                .description("Live bid streams dropped for falling behind")
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // Throws RejectedExecutionException when this node already holds max-subscribers streams
+    public SseEmitter subscribe(long projectId) {
+        if (open.incrementAndGet() > maxSubscribers) {
+            open.decrementAndGet();
+            throw new RejectedExecutionException("Too many live bid streams");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(projectId, emitter);
+        // Added under the map's lock for the key, so a concurrent unsubscribe cannot drop the set this lands in
+        subscribers.compute(projectId, (k, set) -> {
+            Set<Subscriber> projectSubscribers = set != null ? set : ConcurrentHashMap.<Subscriber>newKeySet();
+            projectSubscribers.add(subscriber);
+            return projectSubscribers;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return open.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBidsChanged(BidsChanged event) {
+        boolean watched = false;
+        for (Bid bid : event.bids()) {
+            if (subscribers.containsKey(bid.getProjectId())) {
+                // A later change to the same bid replaces the earlier one still waiting
+                pending.computeIfAbsent(bid.getProjectId(), k -> new ConcurrentHashMap<>()).put(bid.getId(), bid);
+                watched = true;
+            }
+        }
+        if (watched) {
+            scheduleFlush();
+        }
+    }
+
+    // The bulk award does not load the bids, so they are read at flush time, and only if someone is watching
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectAwarded(ProjectAwarded event) {
+        if (subscribers.containsKey(event.projectId())) {
+            pendingAwards.add(event.projectId());
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            flushScheduled.set(false);
+            logger.warn("Bid stream dispatcher is shut down, dropping update");
+        }
+    }
+
+    private void flush() {
+        // Cleared first, so anything arriving from here on schedules the next flush
+        flushScheduled.set(false);
+        Map<Long, List<Bid>> byProject = new HashMap<>();
+        for (Long projectId : new ArrayList<>(pendingAwards)) {
+            pendingAwards.remove(projectId);
+            pending.remove(projectId);
+            byProject.put(projectId, bidService.findByProjectId(projectId));
+        }
+        for (Long projectId : new ArrayList<>(pending.keySet())) {
+            Map<Long, Bid> bids = pending.remove(projectId);
+            if (bids != null) {
+                byProject.computeIfAbsent(projectId, k -> new ArrayList<>()).addAll(bids.values());
+            }
+        }
+        if (!byProject.isEmpty()) {
+            publish(byProject);
+        }
+    }
+
+    private void publish(Map<Long, List<Bid>> byProject) {
+        List<Bid> bids = new ArrayList<>();
+        for (List<Bid> projectBids : byProject.values()) {
+            bids.addAll(projectBids);
+        }
+        Map<Long, List<BidDetail>> details = new HashMap<>();
+        for (BidDetail detail : hydrationService.toBidDetails(bids)) {
+            details.computeIfAbsent(detail.getProjectId(), k -> new ArrayList<>()).add(detail);
+        }
+        Map<Long, ProjectBidStats> stats = projectBidStatsService.findAllByProjectId(byProject.keySet());
+
+        for (Map.Entry<Long, List<BidDetail>> entry : details.entrySet()) {
+            ProjectBidStats projectStats = stats.get(entry.getKey());
+            BidStreamEvent payload = new BidStreamEvent(
+                    entry.getKey(),
+                    entry.getValue(),
+                    projectStats != null ? projectStats.getBidCount() : 0,
+                    projectStats != null ? projectStats.getAverage() : 0.0);
+            try {
+                String json = objectMapper.writeValueAsString(payload);
+                broadcast(entry.getKey(), "event:bids\ndata:" + json + "\n\n", false);
+            } catch (IOException e) {
+                logger.error("Error serializing bid stream event: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Keeps proxies from closing idle streams, weeds out clients that went away silently and drops the ones whose
+    // writes have stalled. Only queues work for the writers, so it never blocks the shared scheduler thread
+    @Scheduled(fixedRate = 30 * 1000)
+    public void heartbeat() {
+        for (Long projectId : subscribers.keySet()) {
+            broadcast(projectId, ":ping\n\n", true);
+        }
+    }
+
+    private void broadcast(long projectId, String frame, boolean heartbeat) {
+        Set<Subscriber> projectSubscribers = subscribers.get(projectId);
+        if (projectSubscribers == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Subscriber subscriber : projectSubscribers) {
+            subscriber.offer(frame, heartbeat, now);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.projectId, (k, set) -> {
+            if (set.remove(subscriber)) {
+                open.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * One stream and the frames waiting to be written to it. At most one
+     * drain per subscriber is queued or running on the writer pool, and the
+     * emitter is only ever written to or completed from that drain, or while
+     * no drain holds it, so a write stuck on a dead socket never blocks the
+     * thread that decides to drop it.
+     */
+    private final class Subscriber {
+        private final long projectId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<String> outbox = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+        private long writingSince;
+
+        private Subscriber(long projectId, SseEmitter emitter) {
+            this.projectId = projectId;
+            this.emitter = emitter;
+        }
+
+        private void offer(String frame, boolean heartbeat, long now) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (writingSince != 0 && now - writingSince > TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs)) {
+                    drop("write stalled for over " + writeTimeoutMs + " ms");
+                    return;
+                }
+                // A stream with frames still going out needs no ping
+                if (heartbeat && draining) {
+                    return;
+                }
+                if (outbox.size() >= outboxFrames) {
+                    drop("outbox full");
+                    return;
+                }
+                outbox.add(frame);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                writers.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    draining = false;
+                    drop("writer pool is full");
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                String frame;
+                synchronized (this) {
+                    frame = closed ? null : outbox.poll();
+                    if (frame == null) {
+                        draining = false;
+                        writingSince = 0;
+                        if (closed) {
+                            emitter.complete();
+                        }
+                        return;
+                    }
+                    writingSince = System.nanoTime();
+                }
+                try {
+                    emitter.send(Collections.singleton(new DataWithMediaType(frame, MediaType.TEXT_PLAIN)));
+                } catch (IOException | IllegalStateException e) {
+                    synchronized (this) {
+                        closed = true;
+                        outbox.clear();
+                        draining = false;
+                        writingSince = 0;
+                    }
+                    unsubscribe(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+
+        // Called holding the lock. A running drain completes the emitter once its write returns
+        private void drop(String reason) {
+            closed = true;
+            outbox.clear();
+            unsubscribe(this);
+            dropped.increment();
+            logger.debug("Dropping live bid stream for project {}: {}", projectId, reason);
+            if (!draining) {
+                emitter.complete();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+        writers.shutdown();
+        for (Set<Subscriber> projectSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : projectSubscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+        subscribers.clear();
+        open.set(0);
+    }
+}
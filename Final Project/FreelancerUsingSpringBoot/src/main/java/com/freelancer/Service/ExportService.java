@@ -0,0 +1,68 @@
+package com.freelancer.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables as a JSON array without materializing them. Rows are
+ * read through a forward-only cursor and the persistence context is cleared
+ * every {@link #CLEAR_INTERVAL} rows, so heap use stays flat however large
+ * the table is.
+ */
+@Service
+public class ExportService {
+
+    // Keep in step with the fetch size hint on the repository stream queries
+    public static final int CLEAR_INTERVAL = 500;
+
+    @PersistenceContext
+    private EntityManager em;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    public <T> StreamingResponseBody streamJsonArray(Supplier<Stream<T>> source) {
+        return out -> {
+            // Runs on the async request thread, so it needs a transaction of its own for the cursor
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.executeWithoutResult(status -> {
+                long count = 0;
+                try (Stream<T> rows = source.get();
+                     JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.writeStartArray();
+                    Iterator<T> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        generator.writeObject(iterator.next());
+                        if (++count % CLEAR_INTERVAL == 0) {
+                            generator.flush();
+                            em.clear();
+                        }
+                    }
+                    generator.writeEndArray();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                logger.info("Streamed {} rows", count);
+            });
+        };
+    }
+}
@@ -0,0 +1,287 @@
+package com.freelancer.Service;
+
+import com.freelancer.Metrics.BusinessMetrics;
+import com.freelancer.POJO.BlobDeleted;
+import com.freelancer.POJO.StoredFile;
+import com.freelancer.Repository.AttachmentBlobRepository;
+import com.freelancer.exception.UploadChecksumException;
+import com.freelancer.exception.UploadTooLargeException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes uploads to disk without holding them in memory. The multipart
+ * stream is copied with FileChannel.transferFrom in fixed size steps into a
+ * temp file, and only a complete file within the size limit is moved into
+ * place, so readers never see a partial upload and heap use per upload does
+ * not grow with the file.
+ * <p>
+ * Images and documents go to a content-addressed blob store: the SHA-256 is
+ * computed while streaming, the file lives at store-dir/ab/cd/abcd..., and
+ * identical content is kept once. attachment_blobs counts the references;
+ * placing a file and counting it, and releasing the last reference and
+ * deleting it, happen under the same per-hash lock, so a blob is never
+ * deleted while an upload of the same bytes is being committed on this node.
+ */
+@Service
+public class FileStorageService {
+
+    @Value("${freelancer.uploads.store-dir:../uploads/store}")
+    private String storeDir;
+    @Value("${freelancer.uploads.files-dir:F:/cp}")
+    private String filesDir;
+    @Value("${freelancer.uploads.max-image-size:10MB}")
+    private DataSize maxImageSize;
+    @Value("${freelancer.uploads.max-file-size:50MB}")
+    private DataSize maxFileSize;
+
+    @Autowired
+    private AttachmentBlobRepository attachmentBlobRepository;
+    @Autowired
+    private BusinessMetrics businessMetrics;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+
+    // Bytes asked of each transferFrom call
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    private final ReentrantLock[] blobLocks = new ReentrantLock[64];
+    private Counter dedupFiles;
+    private Counter dedupBytes;
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < blobLocks.length; i++) {
+            blobLocks[i] = new ReentrantLock();
+        }
+        dedupFiles = Counter.builder("freelancer.uploads.dedup.files")
+                .description("Uploads whose content was already in the blob store")
+                .register(meterRegistry);
+        dedupBytes = Counter.builder("freelancer.uploads.dedup.bytes").baseUnit("bytes")
+                .description("Bytes not written again because the content was already stored")
+                .register(meterRegistry);
+    }
+
+    // Profile images, into the blob store under a timestamped name
+    public StoredFile storeImage(MultipartFile file) throws IOException {
+        return storeBlob(file, timestamped(file.getOriginalFilename()), maxImageSize.toBytes());
+    }
+
+    // Project documents, into the blob store under a timestamped name
+    public StoredFile storeDocument(MultipartFile file) throws IOException {
+        return storeBlob(file, timestamped(file.getOriginalFilename()), maxFileSize.toBytes());
+    }
+
+    // Plain files from /multipleSave, stored under their own name
+    public StoredFile storeFile(MultipartFile file) throws IOException {
+        String fileName = safeName(file.getOriginalFilename());
+        checkDeclaredSize(file, fileName, maxFileSize.toBytes());
+        Path dir = Files.createDirectories(Paths.get(filesDir));
+        Path temp = Files.createTempFile(dir, ".upload-", ".part");
+        try {
+            long size;
+            try (InputStream in = file.getInputStream()) {
+                size = copy(in, temp, maxFileSize.toBytes(), fileName);
+            }
+            moveIntoPlace(temp, dir.resolve(fileName));
+            businessMetrics.uploaded(size);
+            logger.info("Stored upload {} ({} bytes)", fileName, size);
+            return new StoredFile(fileName, size, null, contentType(file.getContentType(), fileName), false);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // A document assembled elsewhere, such as a finished chunked upload, hashed and moved into the blob store.
+    // With expectedSha256 given, a file that does not match is left where it is
+    public StoredFile commitDocument(Path source, String originalFilename, String expectedSha256) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(sha256)) {
+            throw new UploadChecksumException(originalFilename, expectedSha256, sha256);
+        }
+        String fileName = timestamped(originalFilename);
+        return commitBlob(source, fileName, Files.size(source), sha256, contentType(null, fileName));
+    }
+
+    // Where the content with this hash lives, whether or not it is there
+    public Path blobPath(String sha256) {
+        return Paths.get(storeDir, sha256.substring(0, 2), sha256.substring(2, 4), sha256);
+    }
+
+    /**
+     * Drops one reference to a blob and deletes the file once nothing refers
+     * to it any more.
+     */
+    public void release(String sha256) throws IOException {
+        ReentrantLock lock = lockFor(sha256);
+        lock.lock();
+        try {
+            attachmentBlobRepository.release(sha256);
+            if (attachmentBlobRepository.deleteIfUnreferenced(sha256) == 1) {
+                Files.deleteIfExists(blobPath(sha256));
+                logger.info("Deleted unreferenced blob {}", sha256);
+                eventPublisher.publishEvent(new BlobDeleted(sha256));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private StoredFile storeBlob(MultipartFile file, String fileName, long maxBytes) throws IOException {
+        checkDeclaredSize(file, fileName, maxBytes);
+        Path tempDir = Files.createDirectories(Paths.get(storeDir, "tmp"));
+        Path temp = Files.createTempFile(tempDir, ".upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                size = copy(in, temp, maxBytes, fileName);
+            }
+            return commitBlob(temp, fileName, size, HexFormat.of().formatHex(digest.digest()),
+                    contentType(file.getContentType(), fileName));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Places the file unless the content is already stored, then counts the new reference
+    private StoredFile commitBlob(Path source, String fileName, long size, String sha256, String contentType) throws IOException {
+        Path target = blobPath(sha256);
+        boolean deduplicated;
+        ReentrantLock lock = lockFor(sha256);
+        lock.lock();
+        try {
+            deduplicated = Files.exists(target);
+            if (deduplicated) {
+                Files.delete(source);
+            } else {
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(source, target);
+            }
+            attachmentBlobRepository.acquire(sha256, size, contentType);
+        } finally {
+            lock.unlock();
+        }
+        businessMetrics.uploaded(size);
+        if (deduplicated) {
+            dedupFiles.increment();
+            dedupBytes.increment(size);
+        }
+        logger.info("Stored upload {} as {} ({} bytes{})", fileName, sha256, size, deduplicated ? ", already stored" : "");
+        return new StoredFile(fileName, size, sha256, contentType, deduplicated);
+    }
+
+    private void checkDeclaredSize(MultipartFile file, String fileName, long maxBytes) {
+        // The declared size is checked up front; copy enforces the limit on what actually arrives
+        if (file.getSize() > maxBytes) {
+            throw new UploadTooLargeException(fileName, maxBytes);
+        }
+    }
+
+    private long copy(InputStream in, Path temp, long maxBytes, String fileName) throws IOException {
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            while (true) {
+                // Ask for at most one byte past the limit, so an oversized upload is caught without writing the rest
+                long count = Math.min(TRANSFER_CHUNK, maxBytes + 1 - position);
+                long transferred = out.transferFrom(source, position, count);
+                if (transferred <= 0) {
+                    out.force(false);
+                    return position;
+                }
+                position += transferred;
+                if (position > maxBytes) {
+                    throw new UploadTooLargeException(fileName, maxBytes);
+                }
+            }
+        }
+    }
+
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private ReentrantLock lockFor(String sha256) {
+        return blobLocks[Integer.parseInt(sha256.substring(0, 2), 16) % blobLocks.length];
+    }
+
+    private String timestamped(String originalFilename) {
+        return new Date().getTime() + safeName(originalFilename);
+    }
+
+    // The type the client declared if it is a valid media type, otherwise a guess from the file name
+    static String contentType(String declared, String fileName) {
+        if (declared != null) {
+            try {
+                MediaType type = MediaType.parseMediaType(declared);
+                if (!type.isWildcardType() && !MediaType.APPLICATION_OCTET_STREAM.equalsTypeAndSubtype(type)) {
+                    return type.toString();
+                }
+            } catch (InvalidMediaTypeException e) {
+                // fall through to the guess
+            }
+        }
+        String guessed = URLConnection.guessContentTypeFromName(fileName);
+        return guessed != null ? guessed : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    // Keeps only the last path segment of the client's name and characters that are safe in any file system
+    static String safeName(String originalFilename) {
+        String name = StringUtils.getFilename(StringUtils.cleanPath(originalFilename == null ? "" : originalFilename));
+        name = name == null ? "" : name.replaceAll("[^A-Za-z0-9._-]", "_");
+        return name.isEmpty() || name.startsWith(".") ? "file" + name : name;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.freelancer.Service;
+
+import com.freelancer.Entity.Bid;
+import com.freelancer.Entity.Project;
+import com.freelancer.Entity.ProjectBidStats;
+import com.freelancer.Entity.User;
+import com.freelancer.POJO.BidDetail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the users, projects and bid aggregates referenced by a batch of
+ * bids with one lookup per entity type, instead of one query per bid.
+ */
+@Service
+public class HydrationService {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ProjectService projectService;
+    @Autowired
+    private ProjectBidStatsService projectBidStatsService;
+
+    public List<BidDetail> toBidDetails(List<Bid> bids) {
+        Set<Long> projectIds = new HashSet<>();
+        for (Bid bid : bids) {
+            projectIds.add(bid.getProjectId());
+        }
+        Map<Long, Project> projects = projectService.findAllById(projectIds);
+        Map<Long, ProjectBidStats> stats = projectBidStatsService.findAllByProjectId(projectIds);
+
+        Set<Long> userIds = new HashSet<>();
+        for (Bid bid : bids) {
+            userIds.add(bid.getUserId());
+        }
+        for (Project project : projects.values()) {
+            userIds.add(project.getEmployerId());
+        }
+        Map<Long, User> users = userService.findAllById(userIds);
+
+        List<BidDetail> bidDetails = new ArrayList<>(bids.size());
+        for (Bid bid : bids) {
+            User bidder = users.get(bid.getUserId());
+            Project project = projects.get(bid.getProjectId());
+            User employer = project != null ? users.get(project.getEmployerId()) : null;
+            ProjectBidStats projectStats = stats.get(bid.getProjectId());
+
+            bidDetails.add(new BidDetail(
+                    bid.getId(),
+                    bid.getUserId(),
+                    bid.getProjectId(),
+                    bid.getBid_period(),
+                    bid.getBid_amount(),
+                    bid.getBid_status(),
+                    bidder != null ? bidder.getName() : "Unknown",
+                    project != null ? project.getTitle() : "Untitled",
+                    employer != null ? employer.getName() : "Unknown Employer",
+                    projectStats != null ? projectStats.getAverage() : 0.0
+            ));
+        }
+        return bidDetails;
+    }
+}
@@ -0,0 +1,307 @@
+package com.freelancer.Service;
+
+import com.freelancer.POJO.BlobDeleted;
+import com.freelancer.POJO.ImageVariant;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Square thumbnails of uploaded images at the sizes the UI shows avatars in,
+ * so list views of bidders and employers do not download full photos. They
+ * are made on a small bounded pool after upload, or the first time a size is
+ * asked for, and kept on disk as derivatives-dir/ab/sha256-size.jpg (.png
+ * when the image has transparency). Since they are keyed by content, an
+ * image uploaded twice is only processed once. When the pool is full the
+ * work is dropped and picked up again by the next request for that size.
+ */
+@Service
+public class ImageDerivativeService {
+
+    @Value("${freelancer.images.derivatives-dir:../uploads/derivatives}")
+    private String derivativesDir;
+    @Value("${freelancer.images.sizes:32,64,200}")
+    private int[] sizes;
+    @Value("${freelancer.images.threads:1}")
+    private int threads;
+    @Value("${freelancer.images.queue-capacity:100}")
+    private int queueCapacity;
+    // Larger sources are refused rather than decoded, however small the file
+    @Value("${freelancer.images.max-pixels:40000000}")
+    private long maxPixels;
+    @Value("${freelancer.images.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    // File extension and content type; JPEG unless the source has transparency
+    private static final String[][] FORMATS = {{"jpg", "image/jpeg"}, {"png", "image/png"}};
+
+    private ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // Blobs that could not be decoded, so repeated requests do not keep queueing them
+    private final Cache<String, Boolean> failed = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(1, TimeUnit.HOURS)
+            .build();
+    private Timer generateTimer;
+    private Counter rejected;
+    private Counter failures;
+
+    @PostConstruct
+    public void init() {
+        sizes = Arrays.stream(sizes).sorted().distinct().toArray();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "image-derivative-" + threadCount.incrementAndGet());
+                    // Thumbnails can wait; requests cannot
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "image.derivatives", Tags.empty()).bindTo(meterRegistry);
+        generateTimer = Timer.builder("freelancer.images.derivatives")
+                .description("Time to decode one image and write all of its thumbnails")
+                .register(meterRegistry);
+        rejected = Counter.builder("freelancer.images.derivatives.rejected")
+                .description("Thumbnail jobs dropped because the queue was full")
+                .register(meterRegistry);
+        failures = Counter.builder("freelancer.images.derivatives.failed")
+                .description("Images that could not be decoded or were too large")
+                .register(meterRegistry);
+        logger.info("Image derivatives: sizes {}, {} threads, queue {}", Arrays.toString(sizes), threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // The configured size that best serves a request for the given one: the smallest that is not smaller
+    public int sizeFor(int requested) {
+        for (int size : sizes) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return sizes[sizes.length - 1];
+    }
+
+    /**
+     * The thumbnail of this blob at a configured size, or null when it has
+     * not been made yet; in that case it is queued so a later request finds it.
+     */
+    public ImageVariant variant(String sha256, int size) {
+        for (String[] format : FORMATS) {
+            Path path = pathFor(sha256, size, format[0]);
+            if (Files.isRegularFile(path)) {
+                return new ImageVariant(sha256, size, path, format[1]);
+            }
+        }
+        generate(sha256);
+        return null;
+    }
+
+    // Queues every thumbnail of the blob that does not exist yet; returns at once
+    public void generate(String sha256) {
+        if (failed.getIfPresent(sha256) != null || !pending.add(sha256)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateTimer.record(() -> writeDerivatives(sha256));
+                } finally {
+                    pending.remove(sha256);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(sha256);
+            rejected.increment();
+        }
+    }
+
+    @EventListener
+    public void onBlobDeleted(BlobDeleted event) {
+        for (int size : sizes) {
+            for (String[] format : FORMATS) {
+                try {
+                    Files.deleteIfExists(pathFor(event.sha256(), size, format[0]));
+                } catch (IOException e) {
+                    logger.warn("Could not delete thumbnail of {}: {}", event.sha256(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void writeDerivatives(String sha256) {
+        if (Arrays.stream(sizes).allMatch(size -> exists(sha256, size))) {
+            return;
+        }
+        try {
+            BufferedImage source = read(fileStorageService.blobPath(sha256));
+            if (source == null) {
+                failed.put(sha256, Boolean.TRUE);
+                failures.increment();
+                return;
+            }
+            boolean alpha = source.getColorModel().hasAlpha();
+            String[] format = alpha ? FORMATS[1] : FORMATS[0];
+            BufferedImage square = cropSquare(source);
+            // Largest first, each scaled from the previous one, which keeps the small sizes sharp and cheap
+            BufferedImage current = square;
+            for (int i = sizes.length - 1; i >= 0; i--) {
+                int size = sizes[i];
+                Path target = pathFor(sha256, size, format[0]);
+                current = scale(current, Math.min(size, square.getWidth()), alpha);
+                if (!Files.exists(target)) {
+                    write(current, target, format[0]);
+                }
+            }
+            logger.info("Made thumbnails of {} ({}x{})", sha256, source.getWidth(), source.getHeight());
+        } catch (IOException | RuntimeException e) {
+            failed.put(sha256, Boolean.TRUE);
+            failures.increment();
+            logger.warn("Could not make thumbnails of {}: {}", sha256, e.getMessage());
+        }
+    }
+
+    // Decodes at most what the largest thumbnail needs: big photos are subsampled while reading
+    private BufferedImage read(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    logger.warn("Image {}x{} is over the {} pixel limit", width, height, maxPixels);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.min(width, height) / (sizes[sizes.length - 1] * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage cropSquare(BufferedImage image) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        return image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+    }
+
+    // Halves at most once per pass so downscaling by large factors does not alias
+    private static BufferedImage scale(BufferedImage image, int size, boolean alpha) {
+        BufferedImage current = image;
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        do {
+            int next = Math.max(size, current.getWidth() / 2);
+            BufferedImage scaled = new BufferedImage(next, next, type);
+            Graphics2D g = scaled.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, next, next, null);
+            } finally {
+                g.dispose();
+            }
+            current = scaled;
+        } while (current.getWidth() > size);
+        return current;
+    }
+
+    private void write(BufferedImage image, Path target, String extension) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".thumb-", ".part");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersBySuffix(extension).next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (param.canWriteCompressed() && "jpg".equals(extension)) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(jpegQuality);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean exists(String sha256, int size) {
+        for (String[] format : FORMATS) {
+            if (Files.isRegularFile(pathFor(sha256, size, format[0]))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Path pathFor(String sha256, int size, String extension) {
+        return Paths.get(derivativesDir, sha256.substring(0, 2), sha256 + "-" + size + "." + extension);
+    }
+}
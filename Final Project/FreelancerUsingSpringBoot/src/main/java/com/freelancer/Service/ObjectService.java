@@ -1,12 +1,23 @@
 package com.freelancer.Service;
 
-import ch.qos.logback.core.net.SyslogOutputStream;
-import com.freelancer.Entity.Project;
+import com.freelancer.Entity.ProjectQueries;
+import com.freelancer.POJO.BidDetail;
+import com.freelancer.POJO.BidDetailRow;
+import com.freelancer.POJO.EmployerProjectRow;
+import com.freelancer.POJO.FeedPage;
+import com.freelancer.POJO.FeedQuery;
+import com.freelancer.POJO.OpenProjectRow;
 import com.freelancer.POJO.ProjectDetail;
+import com.freelancer.POJO.ProjectDetailRow;
+import com.freelancer.POJO.UserBidProjectRow;
+import com.freelancer.POJO.UserOpenProjectRow;
+import com.freelancer.POJO.UserProgressProjectRow;
+import com.freelancer.Utility.FeedCursor;
 import org.springframework.stereotype.Service;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,129 +34,158 @@ public class ObjectService{
 
 
     public List<ProjectDetail> getOpenProjects(long userId){
-        String query="select c.name,sub1.* from (select a.id,a.freelancer_id,a.employer_id,a.title,a.main_skill_id,a.budget_range," +
-                "a.budget_period,COALESCE(avg(b.bid_amount),0) as average ,count(b.project_id) as count from project a left outer " +
-                "join bid b on a.id=b.project_id group by a.id,a.title) as sub1,user c where c.id=sub1.employer_id and" +
-                " employer_id!=" + userId + " and sub1.freelancer_id IS NULL";
-        List<Object[]> results = em.createNativeQuery(query).getResultList();
-        List<ProjectDetail> processedResults = new ArrayList<>();
-        for (Object obj[]:results) {
-            System.out.println(obj);
-            ProjectDetail projectDetail = new ProjectDetail();
-            projectDetail.setEmployerName(obj[0].toString());
-            projectDetail.setProjectId(Long.parseLong(obj[1]+""));
-            projectDetail.setEmployerId(Long.parseLong(obj[3]+""));
-            projectDetail.setProjectTitle(obj[4].toString());
-            projectDetail.setProjectSkill(obj[5].toString());
-            projectDetail.setProjectBudget(obj[6].toString());
-            projectDetail.setProjectPeriod(obj[7].toString());
-            projectDetail.setAverageBid(Double.parseDouble(obj[8]+""));
-            projectDetail.setBidCount(Long.parseLong(obj[9]+""));
-            processedResults.add(projectDetail);
+        List<OpenProjectRow> results = em.createNamedQuery("Project.openProjects", OpenProjectRow.class)
+                .setParameter("userId", userId)
+                .getResultList();
+        List<ProjectDetail> processedResults = new ArrayList<>(results.size());
+        for (OpenProjectRow row : results) {
+            processedResults.add(row.toProjectDetail());
         }
         return processedResults;
     }
 
+    public FeedPage<ProjectDetail> getOpenProjectsPage(long userId, FeedQuery feedQuery){
+        StringBuilder query = new StringBuilder(ProjectQueries.OPEN_PROJECTS);
+        appendFeedFilters(query, feedQuery, "a.id");
+        Query nativeQuery = em.createNativeQuery(query.toString(), "OpenProjectRow").setParameter("userId", userId);
+        bindFeedFilters(nativeQuery, feedQuery);
+        List<OpenProjectRow> results = nativeQuery.getResultList();
+
+        List<ProjectDetail> processedResults = new ArrayList<>(Math.min(results.size(), feedQuery.getPageSize()));
+        String nextCursor = null;
+        for (OpenProjectRow row : results) {
+            if (processedResults.size() == feedQuery.getPageSize()) {
+                OpenProjectRow last = results.get(processedResults.size() - 1);
+                nextCursor = new FeedCursor(last.datePosted(), last.projectId()).encode();
+                break;
+            }
+            processedResults.add(row.toProjectDetail());
+        }
+        return new FeedPage<>(processedResults, nextCursor);
+    }
+
     public List<ProjectDetail> getProjectDetail(long projectId){
-        String query="select sub1.*,b.link from (select a.id,a.freelancer_id,a.document_id,a.description,a.employer_id,a.title" +
-                ",a.main_skill_id,a.budget_range,a.budget_period,COALESCE(avg(b.bid_amount),0) as average,count(b.project_id) " +
-                "as count from project a left outer join bid b on a.id=b.project_id group by a.id,a.title) as sub1,attachments " +
-                "b where b.id=sub1.document_id  and sub1.id=" + projectId;
-        List<Object[]> results = em.createNativeQuery(query).getResultList();
-        List<ProjectDetail> processedResults = new ArrayList<>();
-        for (Object obj[]:results) {
-            System.out.println(obj.toString());
-            ProjectDetail projectDetail = new ProjectDetail();
-            projectDetail.setProjectId(Long.parseLong(obj[0]+""));
-            projectDetail.setFreelancerId(Long.parseLong(obj[1]+""));
-            projectDetail.setDocumentId(Long.parseLong(obj[2]+""));
-            projectDetail.setProjectDescription(obj[3].toString());
-            projectDetail.setEmployerId(Long.parseLong(obj[4]+""));
-            projectDetail.setProjectTitle(obj[5].toString());
-            projectDetail.setProjectSkill(obj[6].toString());
-            projectDetail.setProjectBudget(obj[7].toString());
-            projectDetail.setProjectPeriod(obj[8].toString());
-            projectDetail.setAverageBid(Double.parseDouble(obj[9]+""));
-            projectDetail.setBidCount(Long.parseLong(obj[10]+""));
-            projectDetail.setDocumentPath(obj[11].toString());
-            processedResults.add(projectDetail);
+        List<ProjectDetailRow> results = em.createNamedQuery("Project.projectDetail", ProjectDetailRow.class)
+                .setParameter("projectId", projectId)
+                .getResultList();
+        List<ProjectDetail> processedResults = new ArrayList<>(results.size());
+        for (ProjectDetailRow row : results) {
+            processedResults.add(row.toProjectDetail());
         }
         return processedResults;
     }
 
 
     public List<ProjectDetail> getUserOpenProjects(long userId){
-        String query="select a.id,a.employer_id,a.title,a.budget_range,a.budget_period,COALESCE(avg(b.bid_amount),0) as average ," +
-                "count(b.project_id) as count from project a left outer join bid b on a.id=b.project_id and b.bid_status='BID_SENT' " +
-                "where a.employer_id=" + userId +  " and a.freelancer_id is NULL group by a.id,a.title";
-        List<Object[]> results = em.createNativeQuery(query).getResultList();
-        List<ProjectDetail> processedResults = new ArrayList<>();
-        for (Object obj[]:results) {
-            System.out.println(obj.toString());
-            ProjectDetail projectDetail = new ProjectDetail();
-            projectDetail.setProjectId(Long.parseLong(obj[0]+""));
-            projectDetail.setEmployerId(Long.parseLong(obj[1]+""));
-            projectDetail.setProjectTitle(obj[2].toString());
-            projectDetail.setProjectBudget(obj[3].toString());
-            projectDetail.setProjectPeriod(obj[4].toString());
-            projectDetail.setAverageBid(Double.parseDouble(obj[5]+""));
-            projectDetail.setBidCount(Long.parseLong(obj[6]+""));
-            processedResults.add(projectDetail);
+        List<UserOpenProjectRow> results = em.createNamedQuery("Project.userOpenProjects", UserOpenProjectRow.class)
+                .setParameter("userId", userId)
+                .getResultList();
+        List<ProjectDetail> processedResults = new ArrayList<>(results.size());
+        for (UserOpenProjectRow row : results) {
+            processedResults.add(row.toProjectDetail());
         }
         return processedResults;
     }
 
+    // Employer dashboard: [open projects, work in progress] from a single statement
+    public List<List<ProjectDetail>> getEmployerDashboard(long employerId){
+        List<EmployerProjectRow> results = em.createNamedQuery("Project.employerDashboard", EmployerProjectRow.class)
+                .setParameter("userId", employerId)
+                .getResultList();
+        List<ProjectDetail> openProjects = new ArrayList<>();
+        List<ProjectDetail> workInProgressProjects = new ArrayList<>();
+        for (EmployerProjectRow row : results) {
+            (row.isOpen() ? openProjects : workInProgressProjects).add(row.toProjectDetail());
+        }
+        List<List<ProjectDetail>> dashboard = new ArrayList<>(2);
+        dashboard.add(openProjects);
+        dashboard.add(workInProgressProjects);
+        return dashboard;
+    }
+
     public List<ProjectDetail> getUserProgressProjects(long userId){
-        String query="select c.name,sub1.* from (select a.id as project_id,a.employer_id,a.freelancer_id,a.title,a.end_date,b.bid_amount," +
-                "COALESCE(avg(b.bid_amount),0) as average ,count(b.project_id) as count from project a left outer join bid b " +
-                "on a.id=b.project_id where b.bid_status!='BID_SENT' and a.employer_id=" + userId + " group by a.id,a.title)" +
-                " as sub1,user c where c.id=sub1.freelancer_id";
-        List<Object[]> results = em.createNativeQuery(query).getResultList();
-        List<ProjectDetail> processedResults = new ArrayList<>();
-        for (Object obj[]:results) {
-            System.out.println(obj.toString());
-            ProjectDetail projectDetail = new ProjectDetail();
-            projectDetail.setFreelancerName(obj[0].toString());
-            projectDetail.setProjectId(Long.parseLong(obj[1]+""));
-            projectDetail.setEmployerId(Long.parseLong(obj[2]+""));
-            projectDetail.setFreelancerId(Long.parseLong(obj[3]+""));
-            projectDetail.setProjectTitle(obj[4].toString());
-            projectDetail.setEndDate(obj[5].toString());
-            projectDetail.setBidAmount(obj[6].toString());
-            projectDetail.setAverageBid(Double.parseDouble(obj[7]+""));
-            projectDetail.setBidCount(Long.parseLong(obj[8]+""));
-
-            processedResults.add(projectDetail);
+        List<UserProgressProjectRow> results = em.createNamedQuery("Project.userProgressProjects", UserProgressProjectRow.class)
+                .setParameter("userId", userId)
+                .getResultList();
+        List<ProjectDetail> processedResults = new ArrayList<>(results.size());
+        for (UserProgressProjectRow row : results) {
+            processedResults.add(row.toProjectDetail());
         }
         return processedResults;
     }
 
 
     public List<ProjectDetail> getUserBidProjects(long userId){
-        String query="select c.name,sub1.* from (select a.id,a.employer_id,a.title,a.main_skill_id,a.budget_range,a.budget_period," +
-                "b.bid_amount,b.bid_status,b.user_id,COALESCE(avg(b.bid_amount),0) as average ,count(b.project_id) as " +
-                "count from project a left outer join bid b on a.id=b.project_id group by a.id,b.user_id) as " +
-                "sub1,user c where c.id=sub1.employer_id and sub1.employer_id!="+ userId+ " and sub1.user_id=" + userId;
-        List<Object[]> results = em.createNativeQuery(query).getResultList();
-        List<ProjectDetail> processedResults = new ArrayList<>();
-        for (Object obj[]:results) {
-            System.out.println(obj.toString());
-            ProjectDetail projectDetail = new ProjectDetail();
-            projectDetail.setEmployerName(obj[0].toString());
-            projectDetail.setProjectId(Long.parseLong(obj[1]+""));
-            projectDetail.setEmployerId(Long.parseLong(obj[2]+""));
-            projectDetail.setProjectTitle(obj[3].toString());
-            projectDetail.setProjectSkill(obj[4].toString());
-            projectDetail.setProjectBudget(obj[5].toString());
-            projectDetail.setProjectPeriod(obj[6].toString());
-            projectDetail.setBidAmount(obj[7].toString());
-            projectDetail.setBidStatus(obj[8].toString());
-            projectDetail.setAverageBid(Double.parseDouble(obj[10]+""));
-            projectDetail.setBidCount(Long.parseLong(obj[11]+""));
-
-            processedResults.add(projectDetail);
+        List<UserBidProjectRow> results = em.createNamedQuery("Project.userBidProjects", UserBidProjectRow.class)
+                .setParameter("userId", userId)
+                .getResultList();
+        List<ProjectDetail> processedResults = new ArrayList<>(results.size());
+        for (UserBidProjectRow row : results) {
+            processedResults.add(row.toProjectDetail());
         }
         return processedResults;
     }
 
+    // Freelancer dashboard: every bid of the user with bidder, project, employer and average in one statement
+    public List<BidDetail> getUserBidDetails(long userId){
+        List<BidDetailRow> results = em.createNamedQuery("Project.userBidDetails", BidDetailRow.class)
+                .setParameter("userId", userId)
+                .getResultList();
+        List<BidDetail> processedResults = new ArrayList<>(results.size());
+        for (BidDetailRow row : results) {
+            processedResults.add(row.toBidDetail());
+        }
+        return processedResults;
+    }
+
+    // Keyset on (date_posted, b.id): a user can hold several bids on one project
+    public FeedPage<BidDetail> getUserBidProjectsPage(long userId, FeedQuery feedQuery){
+        StringBuilder query = new StringBuilder(ProjectQueries.USER_BID_DETAILS);
+        appendFeedFilters(query, feedQuery, "b.id");
+        Query nativeQuery = em.createNativeQuery(query.toString(), "BidDetailRow").setParameter("userId", userId);
+        bindFeedFilters(nativeQuery, feedQuery);
+        List<BidDetailRow> results = nativeQuery.getResultList();
+
+        List<BidDetail> processedResults = new ArrayList<>(Math.min(results.size(), feedQuery.getPageSize()));
+        String nextCursor = null;
+        for (BidDetailRow row : results) {
+            if (processedResults.size() == feedQuery.getPageSize()) {
+                BidDetailRow last = results.get(processedResults.size() - 1);
+                nextCursor = new FeedCursor(last.datePosted(), last.id()).encode();
+                break;
+            }
+            processedResults.add(row.toBidDetail());
+        }
+        return new FeedPage<>(processedResults, nextCursor);
+    }
+
+    private void appendFeedFilters(StringBuilder query, FeedQuery feedQuery, String idColumn){
+        if (feedQuery.getSkill() != null) {
+            query.append(" and a.main_skill_id=:skill");
+        }
+        if (feedQuery.getBudget() != null) {
+            query.append(" and a.budget_range=:budget");
+        }
+        if (feedQuery.getCursor() != null) {
+            query.append(" and (a.date_posted<:cursorDate or (a.date_posted=:cursorDate and ")
+                    .append(idColumn).append("<:cursorId))");
+        }
+        query.append(" order by a.date_posted desc,").append(idColumn).append(" desc");
+    }
+
+    private void bindFeedFilters(Query query, FeedQuery feedQuery){
+        if (feedQuery.getSkill() != null) {
+            query.setParameter("skill", feedQuery.getSkill());
+        }
+        if (feedQuery.getBudget() != null) {
+            query.setParameter("budget", feedQuery.getBudget());
+        }
+        if (feedQuery.getCursor() != null) {
+            query.setParameter("cursorDate", feedQuery.getCursor().getDatePosted());
+            query.setParameter("cursorId", feedQuery.getCursor().getId());
+        }
+        // One extra row tells us whether another page exists
+        query.setMaxResults(feedQuery.getPageSize() + 1);
+    }
+
 }
@@ -0,0 +1,131 @@
+package com.freelancer.Service;
+
+import com.freelancer.POJO.HashingStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt on a bounded pool sized to the CPU instead of on request
+ * threads, so a login burst queues here rather than starving every other
+ * endpoint. When the queue is full the submit fails straight away with
+ * RejectedExecutionException, which the controllers turn into a 503.
+ */
+@Service
+public class PasswordHashingService {
+
+    @Value("${freelancer.password.bcrypt-strength:10}")
+    private int strength;
+    // 0 means one thread per available core
+    @Value("${freelancer.password.threads:0}")
+    private int threads;
+    @Value("${freelancer.password.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private Timer hashTimer;
+
+    @PostConstruct
+    public void init() {
+        encoder = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, "password-hash-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "password.hash", Tags.empty()).bindTo(meterRegistry);
+        FunctionCounter.builder("freelancer.password.rejected", rejected, LongAdder::sum)
+                .description("Hash requests turned away because the queue was full")
+                .register(meterRegistry);
+        hashTimer = Timer.builder("freelancer.password.hash")
+                .description("Time spent in BCrypt per encode or match")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        logger.info("Password hashing pool: {} threads, queue {}, bcrypt strength {}", poolSize, queueCapacity, strength);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    // True when the stored hash was made with a lower work factor than the one configured now.
+    // BCrypt hashes look like $2a$10$..., the two digits being the log2 cost.
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+            return false;
+        }
+        char tens = encodedPassword.charAt(4);
+        char units = encodedPassword.charAt(5);
+        if (tens < '0' || tens > '9' || units < '0' || units > '9') {
+            return false;
+        }
+        return (tens - '0') * 10 + (units - '0') < strength;
+    }
+
+    public HashingStats getStats() {
+        long count = completed.sum();
+        return new HashingStats(executor.getQueue().size(), executor.getActiveCount(), executor.getPoolSize(),
+                count, rejected.sum(), count > 0 ? totalNanos.sum() / 1e6 / count : 0.0, maxNanos.get() / 1e6);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return work.get();
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    completed.increment();
+                    totalNanos.add(elapsed);
+                    maxNanos.accumulateAndGet(elapsed, Math::max);
+                    hashTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.freelancer.Service;
+
+import com.freelancer.Entity.Bid;
+import com.freelancer.Entity.ProjectBidStats;
+import com.freelancer.Repository.ProjectBidStatsRepository;
+import com.freelancer.Utility.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Service
+public class ProjectBidStatsService {
+
+    @Autowired
+    private ProjectBidStatsRepository projectBidStatsRepository;
+    private static final Logger logger = LoggerFactory.getLogger(ProjectBidStatsService.class);
+
+    public ProjectBidStats findByProjectId(long projectId) {
+        Optional<ProjectBidStats> exist = projectBidStatsRepository.findById(projectId);
+        if(exist.isPresent()){
+            return exist.get();
+        }else{
+            return null;
+        }
+    }
+
+    public Map<Long, ProjectBidStats> findAllByProjectId(Collection<Long> projectIds) {
+        Map<Long, ProjectBidStats> stats = new HashMap<>();
+        for (ProjectBidStats projectStats : projectBidStatsRepository.findAllById(projectIds)) {
+            stats.put(projectStats.getProjectId(), projectStats);
+        }
+        return stats;
+    }
+
+    // Must join the caller's transaction so the stats commit or roll back with the bid
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBid(Bid bid) {
+        recordBids(Collections.singletonList(bid));
+    }
+
+    // One upsert per project touched by the batch; ascending project order keeps concurrent batches from deadlocking
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBids(List<Bid> bids) {
+        Map<Long, List<Bid>> byProject = new TreeMap<>();
+        for (Bid bid : bids) {
+            byProject.computeIfAbsent(bid.getProjectId(), k -> new ArrayList<>()).add(bid);
+        }
+        for (Map.Entry<Long, List<Bid>> entry : byProject.entrySet()) {
+            long count = 0;
+            long pendingCount = 0;
+            double sum = 0.0;
+            double pendingSum = 0.0;
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (Bid bid : entry.getValue()) {
+                double amount = amountOf(bid);
+                count++;
+                sum += amount;
+                min = Math.min(min, amount);
+                max = Math.max(max, amount);
+                if ("BID_SENT".equals(bid.getBid_status())) {
+                    pendingCount++;
+                    pendingSum += amount;
+                }
+            }
+            projectBidStatsRepository.addBids(entry.getKey(), count, sum, min, max, pendingCount, pendingSum);
+        }
+    }
+
+    // An awarded project has no pending bids left
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void clearPending(long projectId) {
+        projectBidStatsRepository.setPending(projectId, 0, 0.0);
+    }
+
+    // Backfill for databases that had bids before the read model existed
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (projectBidStatsRepository.count() == 0) {
+            int rows = projectBidStatsRepository.rebuildFromBids();
+            logger.info("Rebuilt project_bid_stats for {} projects", rows);
+        }
+    }
+
+    private static double amountOf(Bid bid) {
+        return Money.toMajor(bid.getAmountMinor());
+    }
+}
@@ -5,13 +5,23 @@ import java.util.ArrayList;
 
 import com.freelancer.Entity.Bid;
 import com.freelancer.Entity.Project;
+import com.freelancer.POJO.ProjectDeadline;
 import com.freelancer.Repository.ProjectRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 @Service
@@ -30,6 +40,14 @@ public class ProjectService{
         }
     }
 
+    public Map<Long, Project> findAllById(Collection<Long> ids) {
+        Map<Long, Project> projects = new HashMap<>();
+        for (Project project : projectRepository.findAllById(ids)) {
+            projects.put(project.getId(), project);
+        }
+        return projects;
+    }
+
     public Project save(Project project) {
         Project p = projectRepository.save(project);
         return p;
@@ -39,10 +57,48 @@ public class ProjectService{
         return projectRepository.findAll();
     }
 
+    // Caller must hold a transaction and close the stream
+    public Stream<Project> streamAllProjects(){
+        return projectRepository.streamAll();
+    }
+
     public List<Project> findByEmployerId(long employerId) {
         return projectRepository.findByEmployerId(employerId);
     }
 
+    // Caller must hold a transaction; the claimed rows stay locked until it ends. Ids in skip are left alone
+    public List<Project> claimDueProjects(LocalDateTime now, int batchSize, Collection<Long> skip) {
+        return projectRepository.claimDue(now, skip.isEmpty() ? List.of(-1L) : skip, PageRequest.ofSize(batchSize));
+    }
+
+    // Caller must hold a transaction; null if the project is not due or another closer holds it
+    public Project claimDueProject(long projectId, LocalDateTime now) {
+        return projectRepository.claimDueById(projectId, now);
+    }
+
+    // Caller must hold a transaction; null if the project is no longer open or a closer holds it
+    public Project claimOpenProject(long projectId) {
+        return projectRepository.claimOpenById(projectId);
+    }
+
+    public long countDueProjects(LocalDateTime now) {
+        return projectRepository.countDue(now);
+    }
+
+    public List<ProjectDeadline> findOpenDeadlinesUntil(LocalDateTime until) {
+        return projectRepository.findDeadlinesUntil(until);
+    }
+
+    // Projects posted before date_posted was populated would otherwise never show up past the first feed page
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillDatePosted() {
+        int rows = projectRepository.backfillDatePosted();
+        if (rows > 0) {
+            logger.info("Backfilled date_posted for {} projects", rows);
+        }
+    }
+
 
 }
 
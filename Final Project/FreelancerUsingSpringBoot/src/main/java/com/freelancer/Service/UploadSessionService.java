@@ -0,0 +1,313 @@
+package com.freelancer.Service;
+
+import com.freelancer.POJO.StoredFile;
+import com.freelancer.POJO.UploadStatus;
+import com.freelancer.exception.ChunkChecksumException;
+import com.freelancer.exception.ResourceNotFoundException;
+import com.freelancer.exception.UploadTooLargeException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resumable uploads for large project documents. A session owns a sparse file
+ * of the declared size; each chunk is staged on its own, and only copied in at
+ * its offset and counted once its SHA-256 matches, so a client that lost its connection asks
+ * for the status and carries on from the returned offset. Sessions live on the
+ * node that created them and are dropped, file and all, after ttl-ms without a
+ * chunk.
+ */
+@Service
+public class UploadSessionService {
+
+    @Value("${freelancer.uploads.sessions.dir:../uploads/sessions}")
+    private String sessionsDir;
+    @Value("${freelancer.uploads.sessions.max-size:500MB}")
+    private DataSize maxSize;
+    @Value("${freelancer.uploads.sessions.max-chunk-size:8MB}")
+    private DataSize maxChunkSize;
+    @Value("${freelancer.uploads.sessions.max-open:200}")
+    private int maxOpen;
+    @Value("${freelancer.uploads.sessions.ttl-ms:3600000}")
+    private long ttlMs;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionService.class);
+
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        // Partial files left by a previous run have no session any more
+        Path dir = Paths.get(sessionsDir);
+        if (Files.isDirectory(dir)) {
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        Gauge.builder("freelancer.uploads.sessions", sessions, Map::size)
+                .description("Chunked uploads in progress on this node")
+                .register(meterRegistry);
+    }
+
+    public UploadStatus start(String fileName, long size) throws IOException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        if (size > maxSize.toBytes()) {
+            throw new UploadTooLargeException(fileName, maxSize.toBytes());
+        }
+        if (sessions.size() >= maxOpen) {
+            throw new RejectedExecutionException("Too many uploads in progress, try again later");
+        }
+        String id = UUID.randomUUID().toString();
+        Path dir = Files.createDirectories(Paths.get(sessionsDir));
+        Path file = dir.resolve(id + ".part");
+        // Sized up front because transferFrom writes nothing past the end of a file; SPARSE lets file systems
+        // that support it skip allocating the blocks no chunk has reached yet
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                StandardOpenOption.SPARSE)) {
+            out.write(ByteBuffer.allocate(1), size - 1);
+        }
+        Session session = new Session(id, fileName, size, file);
+        sessions.put(id, session);
+        return session.status(ttlMs);
+    }
+
+    public UploadStatus status(String id) {
+        Session session = get(id);
+        session.lock.lock();
+        try {
+            return session.status(ttlMs);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Streams length bytes from the request body into a staging file and,
+     * once their checksum matches, copies them into the session file at
+     * offset. A bad chunk never reaches the session file, so it cannot damage
+     * ranges already received; it is simply sent again.
+     */
+    public UploadStatus writeChunk(String id, long offset, long length, String sha256, InputStream body) throws IOException {
+        Session session = get(id);
+        if (length <= 0 || length > maxChunkSize.toBytes()) {
+            throw new IllegalArgumentException("Chunk length must be between 1 and " + maxChunkSize.toBytes() + " bytes");
+        }
+        if (offset < 0 || offset + length > session.size) {
+            throw new IllegalArgumentException("Chunk " + offset + "+" + length + " is outside the " + session.size + " byte upload");
+        }
+        MessageDigest digest = sha256();
+        session.lock.lock();
+        try {
+            if (session.done) {
+                throw new ResourceNotFoundException("Upload session", "id", id);
+            }
+            session.lastActive = System.currentTimeMillis();
+            // One chunk at a time per session, as the lock is held, so one staging file each is enough
+            Path staged = session.file.resolveSibling(session.id + ".chunk");
+            try {
+                try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(body, digest));
+                     FileChannel out = FileChannel.open(staged, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                             StandardOpenOption.TRUNCATE_EXISTING)) {
+                    long position = 0;
+                    while (position < length) {
+                        long transferred = out.transferFrom(source, position, Math.min(TRANSFER_CHUNK, length - position));
+                        if (transferred <= 0) {
+                            throw new IllegalArgumentException("Chunk ended after " + position + " of " + length + " bytes");
+                        }
+                        position += transferred;
+                    }
+                }
+                String actual = HexFormat.of().formatHex(digest.digest());
+                if (!actual.equalsIgnoreCase(sha256)) {
+                    throw new ChunkChecksumException(offset, sha256, actual);
+                }
+                try (FileChannel in = FileChannel.open(staged, StandardOpenOption.READ);
+                     FileChannel out = FileChannel.open(session.file, StandardOpenOption.WRITE)) {
+                    long position = 0;
+                    while (position < length) {
+                        position += in.transferTo(position, length - position, out.position(offset + position));
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(staged);
+            }
+            session.received(offset, offset + length);
+            return session.status(ttlMs);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Moves a fully received upload into the blob store and ends the session.
+     * Fails without ending it while any range is still missing or, when the
+     * client sent the SHA-256 of the whole file, while the file does not match
+     * it; chunks sent again replace what is there.
+     */
+    public StoredFile complete(String id, String sha256) throws IOException {
+        Session session = get(id);
+        session.lock.lock();
+        try {
+            if (session.done) {
+                throw new ResourceNotFoundException("Upload session", "id", id);
+            }
+            if (session.contiguous() < session.size) {
+                throw new IllegalStateException("Upload incomplete: " + session.contiguous() + " of " + session.size + " bytes");
+            }
+            StoredFile stored = fileStorageService.commitDocument(session.file, session.fileName, sha256);
+            session.done = true;
+            sessions.remove(id);
+            return stored;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    public void cancel(String id) throws IOException {
+        Session session = get(id);
+        session.lock.lock();
+        try {
+            discard(session);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${freelancer.uploads.sessions.sweep-ms:60000}")
+    public void expire() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        for (Session session : sessions.values()) {
+            // A session whose lock is held has a chunk in flight, so it is not abandoned
+            if (session.lastActive < cutoff && session.lock.tryLock()) {
+                try {
+                    if (!session.done && session.lastActive < cutoff) {
+                        discard(session);
+                        logger.info("Expired upload session {} ({} of {} bytes)", session.id, session.contiguous(), session.size);
+                    }
+                } catch (IOException e) {
+                    logger.warn("Could not delete {}: {}", session.file, e.getMessage());
+                } finally {
+                    session.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void discard(Session session) throws IOException {
+        session.done = true;
+        sessions.remove(session.id);
+        Files.deleteIfExists(session.file);
+    }
+
+    private Session get(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new ResourceNotFoundException("Upload session", "id", id);
+        }
+        return session;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Mutable state is guarded by lock, which is held for the whole of a chunk write
+    private static final class Session {
+        final String id;
+        final String fileName;
+        final long size;
+        final Path file;
+        // Verified byte ranges, start -> end, merged so they never overlap or touch
+        final TreeMap<Long, Long> ranges = new TreeMap<>();
+        final ReentrantLock lock = new ReentrantLock();
+        volatile long lastActive = System.currentTimeMillis();
+        boolean done;
+
+        Session(String id, String fileName, long size, Path file) {
+            this.id = id;
+            this.fileName = fileName;
+            this.size = size;
+            this.file = file;
+        }
+
+        void received(long start, long end) {
+            Map.Entry<Long, Long> before = ranges.floorEntry(start);
+            if (before != null && before.getValue() >= start) {
+                start = before.getKey();
+                end = Math.max(end, before.getValue());
+            }
+            Iterator<Map.Entry<Long, Long>> after = ranges.tailMap(start, true).entrySet().iterator();
+            while (after.hasNext()) {
+                Map.Entry<Long, Long> next = after.next();
+                if (next.getKey() > end) {
+                    break;
+                }
+                end = Math.max(end, next.getValue());
+                after.remove();
+            }
+            ranges.put(start, end);
+            lastActive = System.currentTimeMillis();
+        }
+
+        long contiguous() {
+            Long first = ranges.get(0L);
+            return first == null ? 0 : first;
+        }
+
+        long total() {
+            long total = 0;
+            for (Map.Entry<Long, Long> range : ranges.entrySet()) {
+                total += range.getValue() - range.getKey();
+            }
+            return total;
+        }
+
+        UploadStatus status(long ttlMs) {
+            return new UploadStatus(id, fileName, size, contiguous(), total(), lastActive + ttlMs);
+        }
+    }
+}
@@ -2,91 +2,216 @@ package com.freelancer.Service;
 
 import com.freelancer.Controller.UserController;
 import com.freelancer.Entity.User;
+import com.freelancer.POJO.UserCacheStats;
 import com.freelancer.Repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
 import javax.swing.text.html.Option;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    // Database writes after hashing go to Spring's task pool, keeping password-hash threads on BCrypt only
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor taskExecutor;
+    @Value("${freelancer.users.cache.max-size:10000}")
+    private long cacheMaxSize;
+    @Value("${freelancer.users.cache.ttl-ms:600000}")
+    private long cacheTtlMs;
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
-    private BCryptPasswordEncoder bCryptPasswordEncoder= new BCryptPasswordEncoder();
+    // Copies without the password hash, keyed by id, plus the id owning each email. Writes through
+    // addUser/updateUser; the TTL bounds staleness from writes that bypass this service.
+    private Cache<Long, User> usersById;
+    private Cache<String, Long> idsByEmail;
+
+    @PostConstruct
+    public void initCache() {
+        usersById = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users");
+        idsByEmail = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtlMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
 
     public Iterable<User> getAllUsers(){
         return userRepository.findAll();
     }
 
+    // Caller must hold a transaction and close the stream
+    public Stream<User> streamAllUsers(){
+        return userRepository.streamAll();
+    }
+
+    // Returns a private copy without the password hash; callers may modify it and pass it to updateUser
     public User findById(long id){
-        Optional<User> exist = userRepository.findById(id);
+        User cached = usersById.get(id, key -> {
+            Optional<User> exist = userRepository.findById(key);
+            return exist.isPresent() ? new User(exist.get()) : null;
+        });
+        return cached != null ? new User(cached) : null;
+    }
 
-        if(exist.isPresent()){
-            return exist.get();
-        }else{
+    // Shared cached copies for read-only use; only the ids missing from the cache are queried, in one statement
+    public Map<Long, User> findAllById(Collection<Long> ids){
+        return usersById.getAll(ids, missing -> {
+            Map<Long, User> users = new HashMap<>();
+            for (User user : userRepository.findAllById(new ArrayList<Long>(missing))) {
+                users.put(user.getId(), new User(user));
+            }
+            return users;
+        });
+    }
+
+    // Id of the user registered with this email, or null. Unknown emails are not cached so new signups are seen at once
+    private Long findIdByEmail(String email){
+        if(email==null){
             return null;
         }
+        return idsByEmail.get(email, key -> {
+            User exist = userRepository.findByEmail(key);
+            if(exist==null){
+                return null;
+            }
+            usersById.put(exist.getId(), new User(exist));
+            return exist.getId();
+        });
     }
 
+    // Only profile fields are copied onto the stored row, so a cached copy without a hash never clears the password
     public User updateUser(User user){
-        User exist = userRepository.findByEmail(user.getEmail());
-        if(exist!=null){
-            logger.info(exist.toString());
-            logger.info("User exists with same email....Check if the same user");
-            if(exist.getId()==user.getId()){
-             User updatedUser= userRepository.save(user);
-                return updatedUser;
-            }else{
-                logger.error("Same email exist for other user");
-                return null;
-            }
-        }else{
-            logger.info("User does not exists with same email");
-            logger.info("Updating User");
-            User updatedUser=userRepository.save(user);
-            return updatedUser;
+        Long owner = findIdByEmail(user.getEmail());
+        if(owner!=null && !owner.equals(user.getId())){
+            logger.error("Same email exist for other user");
+            return null;
         }
+        Optional<User> exist = userRepository.findById(user.getId());
+        if(!exist.isPresent()){
+            logger.error("User {} not found", user.getId());
+            return null;
+        }
+        logger.info("Updating User");
+        User stored = exist.get();
+        String oldEmail = stored.getEmail();
+        stored.setName(user.getName());
+        stored.setEmail(user.getEmail());
+        stored.setPhone(user.getPhone());
+        stored.setAbout(user.getAbout());
+        stored.setProfile_id(user.getProfile_id());
+        stored.setSkills(user.getSkills());
+        User updatedUser = userRepository.save(stored);
+
+        usersById.put(updatedUser.getId(), new User(updatedUser));
+        if(!updatedUser.getEmail().equals(oldEmail)){
+            idsByEmail.invalidate(oldEmail);
+        }
+        idsByEmail.put(updatedUser.getEmail(), updatedUser.getId());
+        return updatedUser;
+    }
+
+    public UserCacheStats getCacheStats(){
+        CacheStats stats = usersById.stats();
+        return new UserCacheStats(usersById.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount());
     }
 
-    public User addUser(User user){
-        User exist = userRepository.findByEmail(user.getEmail());
+    // Completes with null when the email is taken; hashing runs on the password pool, the insert on the task pool.
+    // The unique email index settles signups that race past the lookup
+    public CompletableFuture<User> addUser(User user){
+        Long exist = findIdByEmail(user.getEmail());
 
         if(exist!=null){
             logger.info("User exists with same email");
-            logger.info(exist.toString());
-            return null;
+            logger.info("Existing user id " + exist);
+            return CompletableFuture.completedFuture(null);
         }else{
             logger.info("User does not exists with same email");
             logger.info("Creating User");
-            String hashedPass = new String(bCryptPasswordEncoder.encode(user.getPassword()));
-            user.setPassword(hashedPass);
-            userRepository.save(user);
-            return user;
+            return passwordHashingService.encode(user.getPassword()).thenApplyAsync(hashedPass -> {
+                user.setPassword(hashedPass);
+                try {
+                    userRepository.save(user);
+                } catch (DataIntegrityViolationException e) {
+                    logger.info("User exists with same email");
+                    return null;
+                }
+                usersById.put(user.getId(), new User(user));
+                idsByEmail.put(user.getEmail(), user.getId());
+                return user;
+            }, taskExecutor);
         }
     }
 
-    public User login(String email, String password){
+    // Completes with null on a bad email or password. Reads the row directly: the hash is never cached
+    public CompletableFuture<User> login(String email, String password){
         User exist = userRepository.findByEmail(email);
         if(exist!=null){
             logger.info("User exists with email...checking password");
             logger.info(exist.toString());
-            if(bCryptPasswordEncoder.matches(password,exist.getPassword())){
-                return exist;
-            }
-            else{
-                logger.info("User name password incorrect");
-                return null;
-            }
+            return passwordHashingService.matches(password, exist.getPassword()).thenApply(matches -> {
+                if(matches){
+                    rehashIfNeeded(exist, password);
+                    return exist;
+                }
+                else{
+                    logger.info("User name password incorrect");
+                    return null;
+                }
+            });
         }else{
             logger.info("User does not exists given email");
-            return null;
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    // Upgrades hashes made with an older work factor the next time the user logs in; the login does not wait for it
+    private void rehashIfNeeded(User user, String password){
+        if(!passwordHashingService.needsRehash(user.getPassword())){
+            return;
+        }
+        String oldHash = user.getPassword();
+        try {
+            passwordHashingService.encode(password).thenAcceptAsync(newHash -> {
+                if (userRepository.updatePassword(user.getId(), oldHash, newHash) > 0) {
+                    logger.info("Rehashed password for user {}", user.getId());
+                }
+            }, taskExecutor);
+        } catch (RejectedExecutionException e) {
+            logger.info("Hashing pool busy, rehash for user {} deferred to a later login", user.getId());
         }
     }
 }
\ No newline at end of file
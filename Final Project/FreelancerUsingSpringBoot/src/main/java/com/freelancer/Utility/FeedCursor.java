@@ -0,0 +1,43 @@
+package com.freelancer.Utility;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for the paginated feeds. The token carries the
+ * {@code date_posted} and id of the last row returned, so the next page
+ * continues strictly after it regardless of rows inserted in the meantime.
+ */
+public class FeedCursor {
+    private final LocalDateTime datePosted;
+    private final long id;
+
+    public FeedCursor(LocalDateTime datePosted, long id) {
+        this.datePosted = datePosted;
+        this.id = id;
+    }
+
+    public LocalDateTime getDatePosted() {
+        return datePosted;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = datePosted + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new FeedCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor " + token);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.freelancer.Utility;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point helpers for bid amounts, which are stored as a count of minor
+ * units (cents) next to an ISO currency code.
+ */
+public final class Money {
+    public static final String DEFAULT_CURRENCY = "USD";
+    private static final int MINOR_DIGITS = 2;
+
+    private Money() {
+    }
+
+    // Accepts the free-form strings clients send today, e.g. "$1,250.50"
+    public static long parseMinor(String amount) {
+        StringBuilder digits = new StringBuilder(amount.length());
+        boolean seenPoint = false;
+        for (int i = 0; i < amount.length(); i++) {
+            char c = amount.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == '.' && !seenPoint) {
+                digits.append(c);
+                seenPoint = true;
+            }
+        }
+        if (digits.length() == 0 || (seenPoint && digits.length() == 1)) {
+            throw new IllegalArgumentException("Invalid amount " + amount);
+        }
+        return new BigDecimal(digits.toString()).movePointRight(MINOR_DIGITS)
+                .setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static double toMajor(long minor) {
+        return minor / 100.0;
+    }
+
+    public static String format(long minor) {
+        return BigDecimal.valueOf(minor, MINOR_DIGITS).toPlainString();
+    }
+}
@@ -1,9 +1,13 @@
 package com.freelancer.Utility;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class ResultObject {
     private String errorMsg;
     private String successMsg;
     private Object data;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 
     public ResultObject(String errorMsg, String successMsg, Object data) {
         this.errorMsg = errorMsg;
@@ -34,4 +38,12 @@ public class ResultObject {
     public void setData(Object data) {
         this.data = data;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
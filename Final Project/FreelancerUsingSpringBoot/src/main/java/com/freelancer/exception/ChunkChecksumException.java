@@ -0,0 +1,18 @@
+package com.freelancer.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)
+public class ChunkChecksumException extends RuntimeException {
+    private long offset;
+
+    public ChunkChecksumException(long offset, String expected, String actual) {
+        super(String.format("Chunk at offset %d has checksum %s, expected %s", offset, actual, expected));
+        this.offset = offset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+}
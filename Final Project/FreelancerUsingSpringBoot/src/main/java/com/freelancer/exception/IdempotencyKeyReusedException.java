@@ -0,0 +1,18 @@
+package com.freelancer.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends RuntimeException {
+    private String key;
+
+    public IdempotencyKeyReusedException(String key) {
+        super(String.format("Idempotency-Key %s was already used with a different request", key));
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
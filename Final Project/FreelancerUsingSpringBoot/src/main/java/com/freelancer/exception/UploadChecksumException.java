@@ -0,0 +1,18 @@
+package com.freelancer.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)
+public class UploadChecksumException extends RuntimeException {
+    private String fileName;
+
+    public UploadChecksumException(String fileName, String expected, String actual) {
+        super(String.format("Upload %s has checksum %s, expected %s", fileName, actual, expected));
+        this.fileName = fileName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+}
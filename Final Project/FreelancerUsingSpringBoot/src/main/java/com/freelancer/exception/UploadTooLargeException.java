@@ -0,0 +1,24 @@
+package com.freelancer.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PAYLOAD_TOO_LARGE)
+public class UploadTooLargeException extends RuntimeException {
+    private String fileName;
+    private long maxBytes;
+
+    public UploadTooLargeException(String fileName, long maxBytes) {
+        super(String.format("%s is larger than the %d byte limit", fileName, maxBytes));
+        this.fileName = fileName;
+        this.maxBytes = maxBytes;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,77 @@
+package com.freelancer.Award;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring cost of each award strategy on a project with 10k bids, the size
+ * the single-pass, allocation-free contract of AwardStrategy is meant for.
+ * Run with: mvn test -Dbenchmark=true -Dtest=AwardStrategyBenchmarkTest
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AwardStrategyBenchmarkTest {
+
+    private static final List<AwardStrategy> STRATEGIES = List.of(new LowestPriceStrategy(), new PricePeriodStrategy(),
+            new BudgetFitStrategy(), new ReservePriceStrategy());
+
+    @Param({"LOWEST_PRICE", "PRICE_PERIOD", "BUDGET_FIT", "RESERVE_PRICE"})
+    public String strategyName;
+
+    @Param("10000")
+    public int bidCount;
+
+    private AwardStrategy strategy;
+    private ProjectBids bids;
+    private AwardTerms terms;
+
+    @Setup
+    public void setUp() {
+        strategy = STRATEGIES.stream().filter(s -> s.name().equals(strategyName)).findFirst().orElseThrow();
+        Random random = new Random(42);
+        long[] bidIds = new long[bidCount];
+        long[] userIds = new long[bidCount];
+        long[] amountMinor = new long[bidCount];
+        int[] periodDays = new int[bidCount];
+        for (int i = 0; i < bidCount; i++) {
+            bidIds[i] = i + 1;
+            userIds[i] = random.nextInt(5_000) + 1;
+            amountMinor[i] = 10_000 + random.nextInt(490_000);
+            periodDays[i] = 1 + random.nextInt(60);
+        }
+        bids = new ProjectBids(bidIds, userIds, amountMinor, periodDays, bidCount);
+        terms = new AwardTerms(400_000, 30, 50_000L);
+    }
+
+    @Benchmark
+    public int pickWinner() {
+        return strategy.pickWinner(bids, terms);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() throws Exception {
+        new Runner(new OptionsBuilder().include(AwardStrategyBenchmarkTest.class.getName() + ".pickWinner").build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.freelancer.Controller;
+
+import com.freelancer.Entity.Bid;
+import com.freelancer.Entity.Project;
+import com.freelancer.Entity.User;
+import com.freelancer.Metrics.StatementCounter;
+import com.freelancer.Repository.BidRepository;
+import com.freelancer.Repository.ProjectBidStatsRepository;
+import com.freelancer.Repository.ProjectRepository;
+import com.freelancer.Repository.UserRepository;
+import com.freelancer.Service.BidService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency of the freelancer dashboard (/getUserBidProjects, served by the
+ * Project.userBidDetails query) for a freelancer with hundreds of active
+ * bids on projects that each have a crowd of other bidders.
+ * Run with: mvn test -Dbenchmark=true -Dtest=FreelancerDashboardBenchmarkTest
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FreelancerDashboardBenchmarkTest {
+
+    private static final int PROJECTS = 400;
+    private static final int BIDDERS_PER_PROJECT = 20;
+    private static final int WARMUP = 50;
+    private static final int RUNS = 200;
+
+    @Autowired
+    private StatementCounter statementCounter;
+    @Autowired
+    private BidController bidController;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private BidRepository bidRepository;
+    @Autowired
+    private ProjectBidStatsRepository projectBidStatsRepository;
+    @Autowired
+    private BidService bidService;
+
+    @Test
+    void benchmark() {
+        String request = "{\"id\":" + seed() + "}";
+        for (int i = 0; i < WARMUP; i++) {
+            bidController.getUserBidProjects(request);
+        }
+        int statements = statementCounter.capture(() ->
+                assertEquals(HttpStatus.OK, bidController.getUserBidProjects(request).getStatusCode())).total();
+
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            bidController.getUserBidProjects(request);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("Freelancer dashboard, %d bids over %d-bid projects: p50 %.2f ms, p99 %.2f ms, %d statements%n",
+                PROJECTS, BIDDERS_PER_PROJECT, nanos[RUNS / 2] / 1e6, nanos[RUNS * 99 / 100] / 1e6, statements);
+    }
+
+    // Returns the id of a freelancer bidding on every project
+    private long seed() {
+        bidRepository.deleteAllInBatch();
+        projectBidStatsRepository.deleteAllInBatch();
+        projectRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+
+        User employer = userRepository.save(new User("Employer", "employer@example.com", "x"));
+        List<User> freelancers = new ArrayList<>();
+        for (int i = 0; i < BIDDERS_PER_PROJECT; i++) {
+            freelancers.add(userRepository.save(new User("Freelancer " + i, "freelancer" + i + "@example.com", "x")));
+        }
+        for (int p = 0; p < PROJECTS; p++) {
+            Project project = projectRepository.save(new Project(employer.getId(), "Project " + p, "Description", "Java",
+                    "1000", "30", null));
+            List<Bid> bids = new ArrayList<>();
+            for (User bidder : freelancers) {
+                Bid bid = new Bid();
+                bid.setUserId(bidder.getId());
+                bid.setProjectId(project.getId());
+                bid.setBid_amount(String.valueOf(500 + bids.size()));
+                bid.setBid_period("10");
+                bid.setBid_status("BID_SENT");
+                bids.add(bid);
+            }
+            bidService.placeBids(bids);
+        }
+        return freelancers.get(0).getId();
+    }
+}
@@ -0,0 +1,113 @@
+package com.freelancer.Controller;
+
+import com.freelancer.Entity.Bid;
+import com.freelancer.Entity.Project;
+import com.freelancer.Entity.User;
+import com.freelancer.Metrics.StatementCounter;
+import com.freelancer.Metrics.StatementTally;
+import com.freelancer.Repository.BidRepository;
+import com.freelancer.Repository.ProjectBidStatsRepository;
+import com.freelancer.Repository.ProjectRepository;
+import com.freelancer.Repository.UserRepository;
+import com.freelancer.Service.BidService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Statement budgets for the dashboard and project pages. Each endpoint must
+ * cost the same handful of statements however many bids, projects or users
+ * it returns, so the fixture is big enough that an N+1 would blow the budget.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    private static final int FREELANCERS = 25;
+    private static final int PROJECTS = 10;
+
+    @Autowired
+    private StatementCounter statementCounter;
+    @Autowired
+    private BidController bidController;
+    @Autowired
+    private ProjectController projectController;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private BidRepository bidRepository;
+    @Autowired
+    private ProjectBidStatsRepository projectBidStatsRepository;
+    @Autowired
+    private BidService bidService;
+
+    private User employer;
+    private User freelancer;
+    private Project project;
+
+    @BeforeEach
+    void seed() {
+        bidRepository.deleteAllInBatch();
+        projectBidStatsRepository.deleteAllInBatch();
+        projectRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+
+        employer = userRepository.save(new User("Employer", "employer@example.com", "x"));
+        List<User> freelancers = new ArrayList<>();
+        for (int i = 0; i < FREELANCERS; i++) {
+            freelancers.add(userRepository.save(new User("Freelancer " + i, "freelancer" + i + "@example.com", "x")));
+        }
+        freelancer = freelancers.get(0);
+
+        List<Bid> bids = new ArrayList<>();
+        for (int p = 0; p < PROJECTS; p++) {
+            Project saved = projectRepository.save(new Project(employer.getId(), "Project " + p, "Description", "Java",
+                    "1000", "30", null));
+            if (p == 0) {
+                project = saved;
+            }
+            for (User bidder : freelancers) {
+                Bid bid = new Bid();
+                bid.setUserId(bidder.getId());
+                bid.setProjectId(saved.getId());
+                bid.setBid_amount(String.valueOf(500 + bids.size()));
+                bid.setBid_period("10");
+                bid.setBid_status("BID_SENT");
+                bids.add(bid);
+            }
+        }
+        bidService.placeBids(bids);
+    }
+
+    @Test
+    void projectBidsPage() {
+        StatementTally tally = statementCounter.capture(() ->
+                assertEquals(HttpStatus.OK, bidController.getProjectBids(project.getId()).getStatusCode()));
+        // Bids, then bidders, projects and stats each fetched in one statement for the whole page
+        tally.assertAtMost(4);
+    }
+
+    @Test
+    void freelancerDashboard() {
+        StatementTally tally = statementCounter.capture(() ->
+                assertEquals(HttpStatus.OK, bidController.getUserBidProjects("{\"id\":" + freelancer.getId() + "}").getStatusCode()));
+        tally.assertAtMost(1);
+    }
+
+    @Test
+    void employerDashboard() {
+        StatementTally tally = statementCounter.capture(() ->
+                assertEquals(HttpStatus.OK, projectController.getUserProjects("{\"id\":" + employer.getId() + "}").getStatusCode()));
+        tally.assertAtMost(1);
+    }
+}
@@ -0,0 +1,124 @@
+package com.freelancer.Service;
+
+import com.freelancer.Entity.Bid;
+import com.freelancer.Entity.ProjectBidStats;
+import com.freelancer.Repository.BidRepository;
+import com.freelancer.Repository.ProjectBidStatsRepository;
+import com.freelancer.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "freelancer.bids.write-behind.enabled=true")
+@ActiveProfiles("test")
+class BidIngestionServiceTest {
+
+    private static final int THREADS = 32;
+    private static final int BIDS_PER_THREAD = 200;
+    private static final int PROJECTS = 20;
+
+    @Autowired
+    private BidIngestionService bidIngestionService;
+    @Autowired
+    private BidService bidService;
+    @Autowired
+    private BidRepository bidRepository;
+    @Autowired
+    private ProjectBidStatsRepository projectBidStatsRepository;
+
+    @BeforeEach
+    void clean() {
+        bidRepository.deleteAllInBatch();
+        projectBidStatsRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void sameIdempotencyKeyPlacesOneBid() throws Exception {
+        CompletableFuture<Bid> first = bidIngestionService.submit(bid(1, 1), "retry-key", "body");
+        CompletableFuture<Bid> retry = bidIngestionService.submit(bid(1, 1), "retry-key", "body");
+
+        assertSame(first, retry);
+        assertEquals(first.get(10, TimeUnit.SECONDS).getId(), retry.get(10, TimeUnit.SECONDS).getId());
+        assertEquals(1, bidRepository.count());
+    }
+
+    @Test
+    void idempotencyKeyIsScopedToBidderAndBody() throws Exception {
+        CompletableFuture<Bid> first = bidIngestionService.submit(bid(1, 1), "shared-key", "body");
+        CompletableFuture<Bid> otherBidder = bidIngestionService.submit(bid(2, 1), "shared-key", "body");
+
+        assertNotSame(first, otherBidder);
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> bidIngestionService.submit(bid(1, 1), "shared-key", "other body"));
+        first.get(10, TimeUnit.SECONDS);
+        otherBidder.get(10, TimeUnit.SECONDS);
+        assertEquals(2, bidRepository.count());
+    }
+
+    // Throughput of /postBid's two write paths under a bidding spike: mvn test -Dbenchmark=true -Dtest=BidIngestionServiceTest
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkSynchronousAgainstWriteBehind() throws Exception {
+        double synchronous = run(bid -> bidService.placeBid(bid));
+        clean();
+        double writeBehind = run(bid -> bidIngestionService.submit(bid).get(10, TimeUnit.SECONDS));
+        System.out.printf("Bids/s with %d threads x %d bids: synchronous %.0f, write-behind %.0f%n",
+                THREADS, BIDS_PER_THREAD, synchronous, writeBehind);
+    }
+
+    private double run(BidWriter writer) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> done = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            long userId = t + 1;
+            done.add(clients.submit(() -> {
+                for (int i = 0; i < BIDS_PER_THREAD; i++) {
+                    writer.write(bid(userId, i % PROJECTS + 1));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : done) {
+            f.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+
+        // Every acknowledged bid is committed, and counted once in the stats read model
+        long expected = (long) THREADS * BIDS_PER_THREAD;
+        assertEquals(expected, bidRepository.count());
+        assertEquals(expected, projectBidStatsRepository.findAll().stream().mapToLong(ProjectBidStats::getBidCount).sum());
+        return expected * 1e9 / elapsed;
+    }
+
+    private static Bid bid(long userId, long projectId) {
+        Bid bid = new Bid();
+        bid.setUserId(userId);
+        bid.setProjectId(projectId);
+        bid.setBid_amount("125.50");
+        bid.setBid_period("7");
+        bid.setBid_status("BID_SENT");
+        return bid;
+    }
+
+    private interface BidWriter {
+        Object write(Bid bid) throws Exception;
+    }
+}
@@ -0,0 +1,105 @@
+package com.freelancer.Service;
+
+import com.freelancer.POJO.OpenProjectRow;
+import com.freelancer.POJO.ProjectDetail;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning open-feed rows into ProjectDetails, the old way and the
+ * new. objectArray is the loop ObjectService used to run over untyped
+ * Object[] rows, round-tripping every number through a String (minus its
+ * per-row println). constructorResult is what the OpenProjectRow
+ * @ConstructorResult mapping does: typed column values handed to the
+ * record's canonical constructor reflectively, then toProjectDetail().
+ * Run with: mvn test -Dbenchmark=true -Dtest=RowMappingBenchmarkTest
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmarkTest {
+
+    @Param("1000")
+    public int rowCount;
+
+    // As MySQL hands them back for the old query: BIGINT ids as Long, avg() as BigDecimal
+    private List<Object[]> untypedRows;
+    // As the @ColumnResult types extract them for the new one
+    private List<Object[]> typedRows;
+    private Constructor<OpenProjectRow> constructor;
+
+    @Setup
+    public void setUp() throws Exception {
+        untypedRows = new ArrayList<>(rowCount);
+        typedRows = new ArrayList<>(rowCount);
+        LocalDateTime posted = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < rowCount; i++) {
+            long projectId = i + 1;
+            long employerId = i % 50 + 1;
+            long bidCount = i % 30;
+            untypedRows.add(new Object[]{"Employer " + employerId, projectId, null, employerId, "Project " + projectId,
+                    "Java", "1000", "30", new BigDecimal("512.5000"), bidCount});
+            typedRows.add(new Object[]{"Employer " + employerId, projectId, employerId, "Project " + projectId,
+                    "Java", "1000", "30", 512.5d, bidCount, posted});
+        }
+        constructor = OpenProjectRow.class.getDeclaredConstructor(String.class, long.class, long.class, String.class,
+                String.class, String.class, String.class, double.class, long.class, LocalDateTime.class);
+    }
+
+    @Benchmark
+    public List<ProjectDetail> objectArray() {
+        List<ProjectDetail> processedResults = new ArrayList<>();
+        for (Object[] obj : untypedRows) {
+            ProjectDetail projectDetail = new ProjectDetail();
+            projectDetail.setEmployerName(obj[0].toString());
+            projectDetail.setProjectId(Long.parseLong(obj[1] + ""));
+            projectDetail.setEmployerId(Long.parseLong(obj[3] + ""));
+            projectDetail.setProjectTitle(obj[4].toString());
+            projectDetail.setProjectSkill(obj[5].toString());
+            projectDetail.setProjectBudget(obj[6].toString());
+            projectDetail.setProjectPeriod(obj[7].toString());
+            projectDetail.setAverageBid(Double.parseDouble(obj[8] + ""));
+            projectDetail.setBidCount(Long.parseLong(obj[9] + ""));
+            processedResults.add(projectDetail);
+        }
+        return processedResults;
+    }
+
+    @Benchmark
+    public List<ProjectDetail> constructorResult() throws Exception {
+        List<ProjectDetail> processedResults = new ArrayList<>(typedRows.size());
+        for (Object[] columns : typedRows) {
+            processedResults.add(constructor.newInstance(columns).toProjectDetail());
+        }
+        return processedResults;
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() throws Exception {
+        new Runner(new OptionsBuilder().include(RowMappingBenchmarkTest.class.getName() + ".").build()).run();
+    }
+}
@@ -39,7 +39,7 @@ class CustomRow extends Component {
                 } else if (res.data.successMsg != '') {
                     debugger
                     swal({
-                        imageUrl: res.data.data.profile_id ? require('../images/'+id+'.png'):'',
+                        imageUrl: res.data.data.profile_id ? 'http://localhost:8080/attachments/'+res.data.data.profile_id+'?size=200':'',
                         imageHeight: 200,
                         showCloseButton: true,
                         title: res.data.data.name,
@@ -18,7 +18,7 @@ class ImageUpload extends Component {
   }
 
   componentWillMount() {
-    let getprofileImageAPI = 'http://localhost:8080/getprofileImage';
+    let getprofileImageAPI = 'http://localhost:8080/getprofileImage?size=200';
     let id = localStorage.getItem('id');
     if (id) {
       var apiPayload = {
@@ -110,8 +110,7 @@ class ImageUpload extends Component {
     if (imagePreviewUrl) {
       return <img alt="" class="avatar img-circle" src={this.state.imagePreviewUrl} width='200px' height='200px' />;
     } else if (requireImagePath != '') {
-      var abc = require('../images/' +  requireImagePath);
-      return <img alt="" class="avatar img-circle" src={abc} width='200px' height='200px' />;
+      return <img alt="" class="avatar img-circle" src={'http://localhost:8080' + requireImagePath} width='200px' height='200px' />;
     }
     else {
       return <img alt="" src="http://www.investeqcapital.com/images/tlpteam/no-image.png" class="avatar img-circle" width='200px' height='200px' />
@@ -48,7 +48,7 @@ class ProjectBidDetail extends Component {
         width='200px' height='200px'
         src={require('../images/freelancer_32_32.png')} data-holder-rendered="true" />;
     } else {
-      var imageSource = require('../images/' + id + '.png');
+      var imageSource = 'http://localhost:8080/attachments/' + profile_id + '?size=200';
       return <img class="card-img-right flex-auto d-none d-md-block" alt="Thumbnail [200x250]"
         width='200px' height='200px'
         src={imageSource} data-holder-rendered="true" />;
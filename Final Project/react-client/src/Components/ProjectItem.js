@@ -76,7 +76,7 @@ class ProjectItem extends Component {
                                         // eslint-disable-next-line
                                     } else if (res.data.successMsg != '') {
                                          this.setState({
-                                             documentHref: res.data.data.link
+                                             documentHref: 'http://localhost:8080/attachments/' + res.data.data.id
                                          });
                                     } else {
                                         this.setState({
@@ -160,8 +160,7 @@ class ProjectItem extends Component {
 
     renderFile() {
         if (this.state.documentHref != '') {
-            var abc = require('../files/_' + this.state.documentHref);
-            return <a href={abc} download>Download Attachment</a>
+            return <a href={this.state.documentHref} download>Download Attachment</a>
         }
     }
     render() {